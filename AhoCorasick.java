@@ -0,0 +1,281 @@
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Aho-Corasick multi-pattern matcher.
+ *
+ * A trie of all patterns plus failure links: fail[s] is the longest proper suffix
+ * of s's string that is also a trie path (lps in Kmp.java, generalised to many
+ * patterns). The trie is then compiled into a full DFA in one flat int[] table,
+ * so scanning is one table read per input byte. There is no backtracking and the
+ * cost does not depend on the number of patterns.
+ *
+ * - Patterns are matched as bytes (Strings as UTF-8). Bytes that occur in no pattern
+ *   share byte class 0, so a row has (distinct pattern bytes + 1) columns, not 256.
+ * - Table entries are row offsets (state * classes), so no multiplication per byte.
+ *   An entry is stored as ~offset when the target state ends some pattern, so the
+ *   hot loop only has one sign test. This needs states * classes < 2^31; bigger
+ *   pattern sets are rejected with IllegalArgumentException.
+ * - Matches are reported through MatchListener with primitives, nothing is allocated.
+ * - scan(...) takes and returns the state, so a stream can be fed chunk by chunk.
+ */
+class AhoCorasick {
+
+    interface MatchListener {
+        // pattern `pattern` ends just before byte offset `end` (start = end - length(pattern) in bytes)
+        void onMatch(int pattern, long end);
+    }
+
+    static final int MAX_TABLE = Integer.MAX_VALUE - 8;   // largest int[] the VM hands out
+
+    int classes;
+    int byteClass[] = new int[256];
+    int delta[];            // delta[offset + class] = next offset, or ~next offset if it has matches
+
+    // per state
+    int terminal[];         // first pattern ending exactly here, or -1
+    int outLink[];          // nearest proper suffix state with a pattern, or -1
+    // per pattern
+    int samePattern[];      // next pattern with identical bytes, or -1
+    int length[];
+
+    int states;
+
+    AhoCorasick(String patterns[]) {
+        this(encode(patterns));
+    }
+
+    static byte[][] encode(String patterns[]) {
+        byte bytes[][] = new byte[patterns.length][];
+        for (int i = 0; i < patterns.length; i++) bytes[i] = patterns[i].getBytes(StandardCharsets.UTF_8);
+        return bytes;
+    }
+
+    // Empty patterns are ignored
+    AhoCorasick(byte patterns[][]) {
+        long total = 1;
+        for (byte pattern[] : patterns) {
+            total += pattern.length;
+            for (byte b : pattern) byteClass[b & 0xFF] = 1;
+        }
+        classes = 1;
+        for (int b = 0; b < 256; b++) {
+            if (byteClass[b] != 0) byteClass[b] = classes++;
+        }
+
+        // total is only an upper bound on the states (shared prefixes), so grow on demand
+        int capacity = (int) Math.min(total, 1 << 12);
+        delta = new int[tableSize(capacity)];
+        terminal = new int[capacity];
+        Arrays.fill(terminal, -1);
+        samePattern = new int[patterns.length];
+        length = new int[patterns.length];
+        Arrays.fill(samePattern, -1);
+        states = 1;
+
+        buildTrie(patterns);
+        delta = Arrays.copyOf(delta, tableSize(states));
+        terminal = Arrays.copyOf(terminal, states);
+        outLink = new int[states];
+
+        buildFailureLinks();
+    }
+
+    // Plain trie: delta[s * classes + c] = child state (0 = none, the root is never a child)
+    void buildTrie(byte patterns[][]) {
+        for (int p = 0; p < patterns.length; p++) {
+            length[p] = patterns[p].length;
+            if (length[p] == 0) continue;
+
+            int s = 0;
+            for (byte b : patterns[p]) {
+                int slot = s * classes + byteClass[b & 0xFF];
+                if (delta[slot] == 0) {
+                    if (states == terminal.length) grow();
+                    delta[slot] = states++;
+                }
+                s = delta[slot];
+            }
+            samePattern[p] = terminal[s];
+            terminal[s] = p;
+        }
+    }
+
+    // states * classes as an int, or IllegalArgumentException if the table cannot be indexed by int
+    int tableSize(long stateCount) {
+        long size = stateCount * classes;
+        if (size > MAX_TABLE) {
+            throw new IllegalArgumentException("Pattern set too large: " + stateCount + " states x "
+                    + classes + " byte classes does not fit an int[] table");
+        }
+        return (int) size;
+    }
+
+    void grow() {
+        int capacity = (int) Math.min(terminal.length + (terminal.length >> 1) + 1L, MAX_TABLE / classes);
+        if (capacity == terminal.length) tableSize(capacity + 1L);   // full: throws
+        delta = Arrays.copyOf(delta, tableSize(capacity));
+        int old = terminal.length;
+        terminal = Arrays.copyOf(terminal, capacity);
+        Arrays.fill(terminal, old, capacity, -1);
+    }
+
+    /*
+     * BFS from the root. When state s is dequeued its row still holds trie children:
+     *   child t:    fail[t] = delta(fail[s], c)
+     *   no child:   delta(s, c) = delta(fail[s], c)
+     * Rows of shallower states are already complete, so delta(fail[s], c) is final.
+     *
+     * Afterwards the states are renumbered in BFS order. Scanning mostly stays near
+     * the root, and this puts those rows next to each other at the front of the table
+     * instead of spread over it in insertion order. Every state number also becomes
+     * its row offset (with the match flag).
+     */
+    void buildFailureLinks() {
+        int fail[] = new int[states];
+        int queue[] = new int[states];
+        int head = 0, tail = 0;
+        queue[tail++] = 0;
+        outLink[0] = -1;
+
+        while (head < tail) {
+            int s = queue[head++];
+            int row = s * classes, failRow = fail[s] * classes;
+            for (int c = 0; c < classes; c++) {
+                int t = delta[row + c];
+                if (t != 0) {
+                    int f = s == 0 ? 0 : delta[failRow + c];
+                    fail[t] = f;
+                    outLink[t] = terminal[f] != -1 ? f : outLink[f];
+                    queue[tail++] = t;
+                } else if (s != 0) {
+                    delta[row + c] = delta[failRow + c];
+                }
+            }
+        }
+
+        // rank[s] = BFS position of s; fail[] is reused for it
+        int rank[] = fail;
+        for (int i = 0; i < states; i++) rank[queue[i]] = i;
+
+        int renumbered[] = new int[delta.length];
+        int newTerminal[] = new int[states], newOutLink[] = new int[states];
+        for (int i = 0; i < states; i++) {
+            int s = queue[i];
+            newTerminal[i] = terminal[s];
+            newOutLink[i] = outLink[s] == -1 ? -1 : rank[outLink[s]];
+        }
+        terminal = newTerminal;
+        outLink = newOutLink;
+
+        for (int i = 0; i < states; i++) {
+            int row = queue[i] * classes, newRow = i * classes;
+            for (int c = 0; c < classes; c++) {
+                int t = rank[delta[row + c]];
+                renumbered[newRow + c] = hasMatch(t) ? ~(t * classes) : t * classes;
+            }
+        }
+        delta = renumbered;
+    }
+
+    boolean hasMatch(int state) {
+        return terminal[state] != -1 || outLink[state] != -1;
+    }
+
+    // Reports every pattern ending at the given state
+    void report(int offset, long end, MatchListener listener) {
+        for (int s = offset / classes; s != -1; s = outLink[s]) {
+            for (int p = terminal[s]; p != -1; p = samePattern[p]) listener.onMatch(p, end);
+        }
+    }
+
+    /*
+     * Scans data[from ... to - 1] starting in `state` (0 at the beginning of a stream).
+     * baseOffset is the stream position of data[from]; returns the state to continue with.
+     */
+    int scan(byte data[], int from, int to, int state, long baseOffset, MatchListener listener) {
+        int table[] = delta, cls[] = byteClass;
+        long shift = baseOffset - from + 1;
+        for (int i = from; i < to; i++) {
+            int next = table[state + cls[data[i] & 0xFF]];
+            if (next < 0) {
+                next = ~next;
+                report(next, i + shift, listener);
+            }
+            state = next;
+        }
+        return state;
+    }
+
+    void scan(byte data[], MatchListener listener) {
+        scan(data, 0, data.length, 0, 0, listener);
+    }
+
+    // Only counts matches (every pattern occurrence), no listener
+    long count(byte data[]) {
+        int table[] = delta, cls[] = byteClass;
+        int state = 0;
+        long matches = 0;
+        for (byte b : data) {
+            int next = table[state + cls[b & 0xFF]];
+            if (next < 0) {
+                next = ~next;
+                for (int s = next / classes; s != -1; s = outLink[s]) {
+                    for (int p = terminal[s]; p != -1; p = samePattern[p]) matches++;
+                }
+            }
+            state = next;
+        }
+        return matches;
+    }
+
+    /*
+     * Scans the remaining chars of text as UTF-8 (encoded on the fly, unpaired surrogates
+     * as '?' like String.getBytes) and consumes them. Offsets are UTF-8 byte positions,
+     * exactly as if the encoded bytes had been passed to scan(byte[] ...), so the
+     * MatchListener contract holds. baseOffset is the byte position of the first char.
+     */
+    int scan(CharBuffer text, int state, long baseOffset, MatchListener listener) {
+        long position = baseOffset;   // byte offset of the next encoded byte
+        while (text.hasRemaining()) {
+            int c = text.get();
+            if (c < 0x80) {
+                state = step(state, c, ++position, listener);
+            } else if (c < 0x800) {
+                state = step(state, 0xC0 | (c >> 6), ++position, listener);
+                state = step(state, 0x80 | (c & 0x3F), ++position, listener);
+            } else if (Character.isSurrogate((char) c)) {
+                if (Character.isHighSurrogate((char) c) && text.hasRemaining()
+                        && Character.isLowSurrogate(text.get(text.position()))) {
+                    int cp = Character.toCodePoint((char) c, text.get());
+                    state = step(state, 0xF0 | (cp >> 18), ++position, listener);
+                    state = step(state, 0x80 | ((cp >> 12) & 0x3F), ++position, listener);
+                    state = step(state, 0x80 | ((cp >> 6) & 0x3F), ++position, listener);
+                    state = step(state, 0x80 | (cp & 0x3F), ++position, listener);
+                } else {
+                    state = step(state, '?', ++position, listener);
+                }
+            } else {
+                state = step(state, 0xE0 | (c >> 12), ++position, listener);
+                state = step(state, 0x80 | ((c >> 6) & 0x3F), ++position, listener);
+                state = step(state, 0x80 | (c & 0x3F), ++position, listener);
+            }
+        }
+        return state;
+    }
+
+    int step(int state, int b, long end, MatchListener listener) {
+        int next = delta[state + byteClass[b]];
+        if (next < 0) {
+            next = ~next;
+            report(next, end, listener);
+        }
+        return next;
+    }
+
+    // Approximate heap used by the tables
+    long bytesUsed() {
+        return 4L * (delta.length + terminal.length + outLink.length + samePattern.length + length.length + 256);
+    }
+}
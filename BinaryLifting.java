@@ -1,3 +1,7 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 class BinaryLifting {
     void dfs(int node, int parent, int currDepth, int currWeight, int depths[], int cummulativeWeight[], List<List<int []>> adj, int up[][]){
         depths[node] = currDepth;
@@ -12,6 +16,35 @@ class BinaryLifting {
         }
     }
 
+    // Same result as dfs, but with an explicit stack so a 10^6-deep path cannot overflow the call stack.
+    // up[node][0] doubles as the parent, so the stack only needs node ids.
+    void dfsIterative(int root, int depths[], int cummulativeWeight[], List<List<int []>> adj, int up[][]){
+        int stack[] = new int[adj.size()];
+        int top = 0;
+
+        depths[root] = 0;
+        cummulativeWeight[root] = 0;
+        up[root][0] = -1;
+        stack[top++] = root;
+
+        while(top > 0){
+            int node = stack[--top];
+            List<int []> nbrs = adj.get(node);
+
+            // index loop, so no Iterator is allocated per node
+            for(int i = 0; i < nbrs.size(); i++){
+                int nbr[] = nbrs.get(i);
+                int nbrNode = nbr[0], nbrWt = nbr[1];
+                if(nbrNode != up[node][0]){
+                    depths[nbrNode] = depths[node] + 1;
+                    cummulativeWeight[nbrNode] = cummulativeWeight[node] + nbrWt;
+                    up[nbrNode][0] = node;
+                    stack[top++] = nbrNode;
+                }
+            }
+        }
+    }
+
     void preprocess(int n, int maxPower, int up[][]){
         for(int p = 1; p <= maxPower; p++){
             for(int node = 0; node < n; node++){
@@ -77,7 +110,7 @@ class BinaryLifting {
         int up[][] = new int[n][maxPower + 1];
         for(int i = 0; i < n; i++) Arrays.fill(up[i], -1);
 
-        dfs(0, -1, 0, 0, depths, cummulativeWeight, adj, up);
+        dfsIterative(0, depths, cummulativeWeight, adj, up);
         preprocess(n, maxPower, up);
 
         int result[] = new int[queries.length];
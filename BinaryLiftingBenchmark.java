@@ -0,0 +1,199 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Rough timing harness for the tree / LCA implementations.
+ *
+ * Run with: java BinaryLiftingBenchmark [n] [queries] [maxThreads]
+ * Every implementation answers the same minimumWeight queries on the same
+ * random tree; a warm-up round runs first so the JIT has compiled the hot loops.
+ * The preprocessing section compares the recursive and iterative dfs on a bushy
+ * random tree and on a path (the recursive one runs on a thread with a big stack).
+ * The parallel section answers the same batch with 1, 2, 4 ... maxThreads workers.
+ * The dynamic section moves random subtrees and compares LinkCutTree against
+ * rebuilding FlatTree after every change.
+ */
+public class BinaryLiftingBenchmark {
+
+    // Random tree where node i hangs below a random earlier node (shallow, bushy)
+    static int[][] randomTree(int n, long seed) {
+        Random random = new Random(seed);
+        int edges[][] = new int[n - 1][];
+        for (int v = 1; v < n; v++) {
+            edges[v - 1] = new int[]{random.nextInt(v), v, 1 + random.nextInt(100)};
+        }
+        return edges;
+    }
+
+    // Path 0 - 1 - 2 - ... - (n - 1): depth n - 1, the worst case for recursion
+    static int[][] pathTree(int n, long seed) {
+        Random random = new Random(seed);
+        int edges[][] = new int[n - 1][];
+        for (int v = 1; v < n; v++) {
+            edges[v - 1] = new int[]{v - 1, v, 1 + random.nextInt(100)};
+        }
+        return edges;
+    }
+
+    static List<List<int []>> adjacency(int n, int[][] edges) {
+        List<List<int []>> adj = new ArrayList<>();
+        for (int i = 0; i < n; i++) adj.add(new ArrayList<>());
+        for (int edge[] : edges) {
+            adj.get(edge[0]).add(new int[]{edge[1], edge[2]});
+            adj.get(edge[1]).add(new int[]{edge[0], edge[2]});
+        }
+        return adj;
+    }
+
+    // Times dfs (recursive) or dfsIterative on the given tree, returns nanoseconds
+    static long timeDfs(int[][] edges, boolean iterative) throws InterruptedException {
+        int n = edges.length + 1;
+        List<List<int []>> adj = adjacency(n, edges);
+        int maxPower = 32 - Integer.numberOfLeadingZeros(n);
+        int depths[] = new int[n], cummulativeWeight[] = new int[n];
+        int up[][] = new int[n][maxPower + 1];
+        for (int i = 0; i < n; i++) Arrays.fill(up[i], -1);
+
+        BinaryLifting bl = new BinaryLifting();
+        long elapsed[] = new long[1];
+        Runnable run = () -> {
+            long start = System.nanoTime();
+            if (iterative) bl.dfsIterative(0, depths, cummulativeWeight, adj, up);
+            else bl.dfs(0, -1, 0, 0, depths, cummulativeWeight, adj, up);
+            elapsed[0] = System.nanoTime() - start;
+        };
+
+        // the recursive version needs roughly 100 bytes of stack per level
+        Thread thread = new Thread(null, run, "dfs", iterative ? 0 : 256L * n + (1 << 20));
+        thread.start();
+        thread.join();
+        return elapsed[0];
+    }
+
+    static void dfsComparison(int n) throws InterruptedException {
+        int trees[][][] = {randomTree(n, 3), pathTree(n, 4)};
+        String names[] = {"bushy", "path"};
+
+        for (int t = 0; t < trees.length; t++) {
+            // warm-up
+            timeDfs(trees[t], false);
+            timeDfs(trees[t], true);
+
+            System.out.printf("dfs %-6s recursive %8.1f ms   iterative %8.1f ms%n", names[t],
+                    timeDfs(trees[t], false) / 1e6, timeDfs(trees[t], true) / 1e6);
+        }
+    }
+
+    // Batch throughput of FlatTree.minimumWeight(queries, pool) for growing pool sizes
+    static void parallelScaling(int[][] edges, int[][] queries, int maxThreads) {
+        FlatTree tree = new FlatTree(edges, LcaMode.EULER_TOUR);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            tree.minimumWeight(queries, pool); // warm-up
+
+            long start = System.nanoTime();
+            long checksum = checksum(tree.minimumWeight(queries, pool));
+            report("parallel EULER_TOUR x" + threads, start, queries.length, checksum);
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Each change cuts a random node x from its parent and hangs it below a random
+     * node outside x's subtree, then asks one distance query.
+     */
+    static void timeDynamic(int n, int changes, boolean rebuild) {
+        Random random = new Random(5);
+        int parent[] = new int[n], weight[] = new int[n];
+        LinkCutTree lct = new LinkCutTree(n);
+        for (int v = 1; v < n; v++) {
+            parent[v] = random.nextInt(v);
+            weight[v] = 1 + random.nextInt(100);
+            lct.link(parent[v], v, weight[v]);
+        }
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int c = 0; c < changes; c++) {
+            int x = 1 + random.nextInt(n - 1);
+            lct.cut(x, parent[x]);
+
+            int y;
+            do {
+                y = random.nextInt(n);
+            } while (lct.connected(x, y));
+
+            parent[x] = y;
+            weight[x] = 1 + random.nextInt(100);
+            lct.link(y, x, weight[x]);
+
+            int u = random.nextInt(n), v = random.nextInt(n);
+            if (rebuild) {
+                int edges[][] = new int[n - 1][];
+                for (int w = 1; w < n; w++) edges[w - 1] = new int[]{parent[w], w, weight[w]};
+                checksum += new FlatTree(edges, LcaMode.BINARY_LIFTING).dist(u, v);
+            } else {
+                checksum += lct.pathWeight(u, v);
+            }
+        }
+        double perChange = (System.nanoTime() - start) / (double) changes;
+        System.out.printf("dynamic %-22s %12.0f ns/change  checksum=%d%n",
+                rebuild ? "FlatTree rebuild" : "LinkCutTree", perChange, checksum);
+    }
+
+    static int[][] randomQueries(int n, int count, long seed) {
+        Random random = new Random(seed);
+        int queries[][] = new int[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = new int[]{random.nextInt(n), random.nextInt(n), random.nextInt(n)};
+        }
+        return queries;
+    }
+
+    static long checksum(int result[]) {
+        long sum = 0;
+        for (int value : result) sum += value;
+        return sum;
+    }
+
+    static void report(String name, long startNanos, int queries, long checksum) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-28s %8.3f s  %12.0f queries/s  checksum=%d%n",
+                name, seconds, queries / seconds, checksum);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        int edges[][] = randomTree(n, 1);
+        int queries[][] = randomQueries(n, count, 2);
+
+        for (int round = 0; round < 2; round++) {
+            boolean warmUp = round == 0;
+
+            long start = System.nanoTime();
+            long checksum = checksum(new BinaryLifting().minimumWeight(edges, queries));
+            if (!warmUp) report("BinaryLifting (lists)", start, count, checksum);
+
+            for (LcaMode mode : LcaMode.values()) {
+                start = System.nanoTime();
+                checksum = checksum(new FlatTree(edges, mode).minimumWeight(queries));
+                if (!warmUp) report("FlatTree " + mode, start, count, checksum);
+            }
+        }
+
+        parallelScaling(edges, queries, maxThreads);
+
+        dfsComparison(n);
+
+        // the rebuild baseline is O(n log n) per change, so it gets far fewer changes
+        timeDynamic(Math.min(n, 100_000), 200, true);
+        timeDynamic(Math.min(n, 100_000), 200_000, false);
+    }
+}
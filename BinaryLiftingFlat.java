@@ -0,0 +1,344 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Allocation-free tree + LCA, same idea as BinaryLifting but on flat int arrays.
+ *
+ * - Adjacency is CSR: neighbours of v are adjNode[head[v] ... head[v + 1] - 1]
+ *   (no List<List<int[]>>, no int[] per edge).
+ * - The lifting table is one int[] in level-major order: up[p * n + v] is the
+ *   2^p-th ancestor of v, so each level is a contiguous block.
+ * - The LCA engine is pluggable behind the same lca / dist API:
+ *     BINARY_LIFTING : O(n log n) preprocessing, O(log n) per query
+ *     EULER_TOUR     : Euler tour + sparse table, O(1) per query
+ * - Both engines are read-only after construction, so the distinct (u, v) pairs
+ *   of a query batch can be answered in parallel (ParallelLcaQueries).
+ */
+enum LcaMode {
+    BINARY_LIFTING,
+    EULER_TOUR
+}
+
+interface LcaEngine {
+    int lca(int u, int v);
+}
+
+class FlatTree {
+    int n;
+
+    // CSR adjacency
+    int head[], adjNode[], adjWeight[];
+
+    // rooted at node 0
+    int parent[], depths[], cummulativeWeight[];
+
+    // DFS preorder: every parent comes before its children
+    int order[];
+
+    LcaEngine engine;
+
+    // edges[i] = {u, v, weight}, nodes are 0 ... edges.length
+    FlatTree(int[][] edges, LcaMode mode) {
+        this.n = edges.length + 1;
+        buildCsr(edges);
+        root(0);
+        engine = mode == LcaMode.EULER_TOUR ? new EulerTourLca(this) : new LiftingLca(this);
+    }
+
+    void buildCsr(int[][] edges) {
+        head = new int[n + 1];
+        adjNode = new int[2 * edges.length];
+        adjWeight = new int[2 * edges.length];
+
+        // degree count, then prefix sums
+        for (int edge[] : edges) {
+            head[edge[0] + 1]++;
+            head[edge[1] + 1]++;
+        }
+        for (int v = 0; v < n; v++) head[v + 1] += head[v];
+
+        int next[] = Arrays.copyOf(head, n);
+        for (int edge[] : edges) {
+            int u = edge[0], v = edge[1], wt = edge[2];
+            adjNode[next[u]] = v;
+            adjWeight[next[u]++] = wt;
+            adjNode[next[v]] = u;
+            adjWeight[next[v]++] = wt;
+        }
+    }
+
+    // Explicit-stack DFS: fills parent, depths, cummulativeWeight and order
+    void root(int root) {
+        parent = new int[n];
+        depths = new int[n];
+        cummulativeWeight = new int[n];
+        order = new int[n];
+
+        int stack[] = new int[n];
+        int top = 0, visited = 0;
+
+        parent[root] = -1;
+        stack[top++] = root;
+
+        while (top > 0) {
+            int node = stack[--top];
+            order[visited++] = node;
+
+            for (int e = head[node]; e < head[node + 1]; e++) {
+                int nbr = adjNode[e];
+                if (nbr == parent[node]) continue;
+
+                parent[nbr] = node;
+                depths[nbr] = depths[node] + 1;
+                cummulativeWeight[nbr] = cummulativeWeight[node] + adjWeight[e];
+                stack[top++] = nbr;
+            }
+        }
+    }
+
+    int lca(int u, int v) {
+        return engine.lca(u, v);
+    }
+
+    int dist(int src, int dest) {
+        int common = lca(src, dest);
+        return cummulativeWeight[src] + cummulativeWeight[dest] - 2 * cummulativeWeight[common];
+    }
+
+    // Same contract as BinaryLifting.minimumWeight
+    int[] minimumWeight(int[][] queries) {
+        int result[] = new int[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            int s1 = queries[i][0], s2 = queries[i][1], dest = queries[i][2];
+            result[i] = (dist(s1, dest) + dist(s2, dest) + dist(s1, s2)) / 2;
+        }
+        return result;
+    }
+
+    /*
+     * Same as minimumWeight(queries), with the LCA work split across the pool's threads.
+     *
+     * Every query needs lca(s1, dest), lca(s2, dest) and lca(s1, s2). The batch is
+     * deduplicated first: each (min, max) pair gets an index in pairs[] through an
+     * open-addressing hash table, the distinct pairs are answered once in parallel,
+     * and the results are scattered back to the queries.
+     */
+    int[] minimumWeight(int[][] queries, ForkJoinPool pool) {
+        int q = queries.length;
+        int capacity = Integer.highestOneBit(Math.max(1, 4 * q - 1)) << 1;   // >= 4q slots, load <= 3/4
+        int shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        int slots[] = new int[capacity];
+        Arrays.fill(slots, -1);
+
+        long pairs[] = new long[3 * q];
+        int pairOf[] = new int[3 * q];
+        int pairCount = 0;
+
+        for (int i = 0; i < q; i++) {
+            int s1 = queries[i][0], s2 = queries[i][1], dest = queries[i][2];
+            for (int j = 0; j < 3; j++) {
+                int u = j == 1 ? s2 : s1, v = j == 2 ? s2 : dest;    // (s1, dest), (s2, dest), (s1, s2)
+                long key = ((long) Math.min(u, v) << 32) | Math.max(u, v);
+
+                int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+                while (slots[slot] != -1 && pairs[slots[slot]] != key) slot = (slot + 1) & (capacity - 1);
+                if (slots[slot] == -1) {
+                    slots[slot] = pairCount;
+                    pairs[pairCount++] = key;
+                }
+                pairOf[3 * i + j] = slots[slot];
+            }
+        }
+
+        int lcaOf[] = new int[pairCount];
+        pool.invoke(new ParallelLcaQueries(this, pairs, lcaOf, 0, pairCount));
+
+        int result[] = new int[q];
+        for (int i = 0; i < q; i++) {
+            int s1 = queries[i][0], s2 = queries[i][1], dest = queries[i][2];
+            result[i] = (dist(s1, dest, lcaOf[pairOf[3 * i]])
+                    + dist(s2, dest, lcaOf[pairOf[3 * i + 1]])
+                    + dist(s1, s2, lcaOf[pairOf[3 * i + 2]])) / 2;
+        }
+        return result;
+    }
+
+    int dist(int u, int v, int common) {
+        return cummulativeWeight[u] + cummulativeWeight[v] - 2 * cummulativeWeight[common];
+    }
+}
+
+/*
+ * Computes lca[k] for the packed pairs[k] = (u << 32) | v, k in [from, to), in parallel.
+ *
+ * The lifting / Euler tables are never written after construction, so workers
+ * share them without locks, and each task writes only its own lca[] slots.
+ */
+class ParallelLcaQueries extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    FlatTree tree;
+    long pairs[];
+    int lca[];
+    int from, to;
+
+    ParallelLcaQueries(FlatTree tree, long pairs[], int lca[], int from, int to) {
+        this.tree = tree;
+        this.pairs = pairs;
+        this.lca = lca;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            for (int k = from; k < to; k++) {
+                lca[k] = tree.lca((int) (pairs[k] >>> 32), (int) pairs[k]);
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        invokeAll(
+                new ParallelLcaQueries(tree, pairs, lca, from, mid),
+                new ParallelLcaQueries(tree, pairs, lca, mid, to)
+        );
+    }
+}
+
+/*
+ * Binary lifting with a flattened, level-major table: up[p * n + v].
+ * Filling level p only reads level p - 1, so every level is one sequential pass.
+ */
+class LiftingLca implements LcaEngine {
+    int n, maxPower;
+    int up[];
+    int depths[];
+
+    LiftingLca(FlatTree tree) {
+        this.n = tree.n;
+        this.depths = tree.depths;
+        maxPower = 32 - Integer.numberOfLeadingZeros(n);
+
+        up = new int[(maxPower + 1) * n];
+        System.arraycopy(tree.parent, 0, up, 0, n);
+
+        for (int p = 1; p <= maxPower; p++) {
+            int prev = (p - 1) * n, curr = p * n;
+            for (int node = 0; node < n; node++) {
+                int mid = up[prev + node];
+                up[curr + node] = mid == -1 ? -1 : up[prev + mid];
+            }
+        }
+    }
+
+    int lift(int u, int diff) {
+        while (diff > 0) {
+            int jump = 31 - Integer.numberOfLeadingZeros(diff);
+            u = up[jump * n + u];
+            diff -= (1 << jump);
+        }
+        return u;
+    }
+
+    @Override
+    public int lca(int u, int v) {
+        if (depths[u] > depths[v]) {
+            int temp = u;
+            u = v;
+            v = temp;
+        }
+
+        v = lift(v, depths[v] - depths[u]);
+
+        if (u == v) return u;
+
+        for (int i = maxPower; i >= 0; i--) {
+            int upU = up[i * n + u], upV = up[i * n + v];
+            if (upU != -1 && upU != upV) {
+                u = upU;
+                v = upV;
+            }
+        }
+        return up[u];
+    }
+}
+
+/*
+ * O(1) LCA: the LCA of u and v is the shallowest node visited by the Euler tour
+ * between the first visits of u and v. A sparse table answers that range-minimum
+ * (by depth) with two overlapping power-of-two blocks.
+ */
+class EulerTourLca implements LcaEngine {
+    int m;          // Euler tour length = 2n - 1
+    int first[];    // first position of each node in the tour
+    int sparse[];   // sparse[k * m + i] = shallowest node in tour[i ... i + 2^k - 1]
+    int depths[];
+
+    EulerTourLca(FlatTree tree) {
+        int n = tree.n;
+        this.depths = tree.depths;
+        m = 2 * n - 1;
+        first = new int[n];
+
+        // level 0 of the sparse table is the tour itself
+        int levels = 32 - Integer.numberOfLeadingZeros(m);
+        sparse = new int[levels * m];
+        tour(tree);
+
+        for (int k = 1; k < levels; k++) {
+            int prev = (k - 1) * m, curr = k * m, half = 1 << (k - 1);
+            for (int i = 0; i + (1 << k) <= m; i++) {
+                sparse[curr + i] = shallower(sparse[prev + i], sparse[prev + i + half]);
+            }
+        }
+    }
+
+    // Iterative Euler tour: a node is written when entered and again after each child
+    void tour(FlatTree tree) {
+        int n = tree.n;
+        int stack[] = new int[n];
+        int nextEdge[] = Arrays.copyOf(tree.head, n);
+        int top = 0, len = 0;
+
+        stack[top++] = 0;
+        first[0] = len;
+        sparse[len++] = 0;
+
+        while (top > 0) {
+            int node = stack[top - 1];
+
+            if (nextEdge[node] < tree.head[node + 1]) {
+                int nbr = tree.adjNode[nextEdge[node]++];
+                if (nbr == tree.parent[node]) continue;
+
+                stack[top++] = nbr;
+                first[nbr] = len;
+                sparse[len++] = nbr;
+            } else {
+                top--;
+                if (top > 0) sparse[len++] = stack[top - 1];
+            }
+        }
+    }
+
+    int shallower(int a, int b) {
+        return depths[a] <= depths[b] ? a : b;
+    }
+
+    @Override
+    public int lca(int u, int v) {
+        int l = first[u], r = first[v];
+        if (l > r) {
+            int temp = l;
+            l = r;
+            r = temp;
+        }
+
+        int k = 31 - Integer.numberOfLeadingZeros(r - l + 1);
+        return shallower(sparse[k * m + l], sparse[k * m + r - (1 << k) + 1]);
+    }
+}
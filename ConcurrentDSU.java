@@ -0,0 +1,89 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Lock-free union-find that many threads can share (Anderson & Woll).
+ *
+ * Each element is one atomic word: high 32 bits = rank, low 32 bits = parent.
+ * Keeping both in one word means a link CAS only succeeds if the root is still
+ * a root AND its rank is unchanged, so two threads can never link two roots
+ * under each other (no cycles), even while ranks are growing.
+ *
+ * - find uses path halving with CAS (a failed CAS just means someone else
+ *   already shortened the path).
+ * - union links the root with the smaller (rank, index) under the other one.
+ * - Same union / isConnected API as DSU; indices 0 ... n.
+ */
+class ConcurrentDSU {
+    AtomicLongArray nodes;
+
+    ConcurrentDSU(int n) {
+        nodes = new AtomicLongArray(n + 1);
+        for (int i = 0; i <= n; i++) {
+            nodes.set(i, pack(0, i));
+        }
+    }
+
+    static long pack(int rank, int parent) {
+        return ((long) rank << 32) | (parent & 0xFFFFFFFFL);
+    }
+
+    static int parent(long node) {
+        return (int) node;
+    }
+
+    static int rank(long node) {
+        return (int) (node >>> 32);
+    }
+
+    int findParent(int x) {
+        while (true) {
+            long node = nodes.get(x);
+            int p = parent(node);
+            if (p == x) return x;
+
+            // path halving: point x at its grandparent
+            int g = parent(nodes.get(p));
+            if (p != g) nodes.compareAndSet(x, node, pack(rank(node), g));
+            x = g;
+        }
+    }
+
+    boolean union(int x, int y) {
+        while (true) {
+            x = findParent(x);
+            y = findParent(y);
+            if (x == y) return false;
+
+            long nodeX = nodes.get(x), nodeY = nodes.get(y);
+
+            // someone linked one of them in the meantime
+            if (parent(nodeX) != x || parent(nodeY) != y) continue;
+
+            int rankX = rank(nodeX), rankY = rank(nodeY);
+
+            // x becomes the root with the smaller (rank, index)
+            if (rankX > rankY || (rankX == rankY && x > y)) {
+                int temp = x; x = y; y = temp;
+                long tempNode = nodeX; nodeX = nodeY; nodeY = tempNode;
+                int tempRank = rankX; rankX = rankY; rankY = tempRank;
+            }
+
+            if (!nodes.compareAndSet(x, nodeX, pack(rankX, y))) continue;
+
+            // rank is only a heuristic: losing this race does not break anything
+            if (rankX == rankY) nodes.compareAndSet(y, nodeY, pack(rankY + 1, y));
+            return true;
+        }
+    }
+
+    boolean isConnected(int x, int y) {
+        while (true) {
+            x = findParent(x);
+            y = findParent(y);
+            if (x == y) return true;
+
+            // x is still a root, so at this moment they really are in different sets
+            if (parent(nodes.get(x)) == x) return false;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Concurrent segment tree over the same Operation enum as SegmentTree.
+ *
+ * Layout is the iterative one (leaves at n...2n-1, node i = merge(2i, 2i+1)).
+ * Every node is a long: high 32 bits = version, low 32 bits = value.
+ * The version makes every CAS unique, so a node that changed and changed back
+ * can never be mistaken for an untouched one (no ABA).
+ *
+ * - pointUpdate is lock-free: write the leaf, then refresh each parent with CAS.
+ * - query never blocks and never retries (each node is read atomically).
+ * - consistentQuery returns a result that matches one moment in time;
+ *   it retries while writers are active but never makes a writer wait.
+ */
+class ConcurrentSegmentTree {
+    AtomicLongArray seg;
+    Operation operation;
+    int n;
+
+    // writers bump startedWrites before touching the tree and finishedWrites after
+    AtomicLong startedWrites = new AtomicLong();
+    AtomicLong finishedWrites = new AtomicLong();
+
+    ConcurrentSegmentTree(int arr[], Operation operation) {
+        this.n = arr.length;
+        this.operation = operation;
+        seg = new AtomicLongArray(2 * n);
+        build(arr);
+    }
+
+    static int value(long node) {
+        return (int) node;
+    }
+
+    static long pack(long oldNode, int value) {
+        long version = (oldNode >>> 32) + 1;
+        return (version << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    void build(int arr[]) {
+        for (int i = 0; i < n; i++) seg.set(n + i, arr[i] & 0xFFFFFFFFL);
+        for (int i = n - 1; i > 0; i--) {
+            int merged = operation.merge(value(seg.get(2 * i)), value(seg.get(2 * i + 1)));
+            seg.set(i, merged & 0xFFFFFFFFL);
+        }
+    }
+
+    /*
+     * Recomputes node i from its children and tries to CAS it in.
+     * Trying twice is enough: if both CAS calls fail, another thread has
+     * refreshed i after our child write became visible, so it already
+     * includes our value.
+     */
+    void refresh(int i) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long old = seg.get(i);
+            int merged = operation.merge(value(seg.get(2 * i)), value(seg.get(2 * i + 1)));
+            if (seg.compareAndSet(i, old, pack(old, merged))) return;
+        }
+    }
+
+    void pointUpdate(int indQ, int value) {
+        startedWrites.incrementAndGet();
+        try {
+            int i = indQ + n;
+
+            // leaf: plain CAS loop, last writer wins
+            long old;
+            do {
+                old = seg.get(i);
+            } while (!seg.compareAndSet(i, old, pack(old, value)));
+
+            for (i >>= 1; i > 0; i >>= 1) refresh(i);
+        } finally {
+            finishedWrites.incrementAndGet();
+        }
+    }
+
+    // Weakly consistent: every node is read atomically, but nodes may come from
+    // before and after a concurrent update. Never blocks, never retries.
+    int query(int leftQ, int rightQ) {
+        int resLeft = operation.identity();
+        int resRight = operation.identity();
+
+        int l = leftQ + n, r = rightQ + n + 1;
+        while (l < r) {
+            if ((l & 1) == 1) resLeft = operation.merge(resLeft, value(seg.get(l++)));
+            if ((r & 1) == 1) resRight = operation.merge(value(seg.get(--r)), resRight);
+            l >>= 1;
+            r >>= 1;
+        }
+        return operation.merge(resLeft, resRight);
+    }
+
+    // Consistent: retried until no write started or finished while reading.
+    // Writers never wait for readers; a reader may spin during a burst of writes.
+    int consistentQuery(int leftQ, int rightQ) {
+        while (true) {
+            long before = finishedWrites.get();
+            if (startedWrites.get() != before) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int result = query(leftQ, rightQ);
+
+            if (startedWrites.get() == before) return result;
+        }
+    }
+}
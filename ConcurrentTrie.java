@@ -0,0 +1,66 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Trie that many threads can use at the same time.
+ *
+ * - Child slots are an AtomicReferenceArray: insert creates a missing child with
+ *   compareAndSet(null, node). If another thread won the race, its node is used
+ *   and ours is dropped, so inserts are lock-free and never lose a branch.
+ * - The end-of-word flag is volatile: once insert returns, every later search sees the word.
+ * - search / startsWith only read, never block, and can run next to inserts.
+ * Same API and alphabet ('a' ... 'z') as Trie, but every instance is independent.
+ */
+class ConcurrentNode {
+    final AtomicReferenceArray<ConcurrentNode> links = new AtomicReferenceArray<>(26);
+    volatile boolean flag;
+
+    ConcurrentNode get(char ch) {
+        return links.get(ch - 'a');
+    }
+
+    // Returns the child for ch, creating it if needed (the winner of a race is kept)
+    ConcurrentNode getOrCreate(char ch) {
+        ConcurrentNode child = links.get(ch - 'a');
+        if (child != null) return child;
+
+        ConcurrentNode created = new ConcurrentNode();
+        if (links.compareAndSet(ch - 'a', null, created)) return created;
+        return links.get(ch - 'a');
+    }
+}
+
+public class ConcurrentTrie {
+
+    private final ConcurrentNode root = new ConcurrentNode();
+
+    //Inserts a word into the trie
+
+    public void insert(String word) {
+        ConcurrentNode node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.getOrCreate(word.charAt(i));
+        }
+        node.flag = true;
+    }
+
+    //Returns if the word is in the trie
+
+    public boolean search(String word) {
+        ConcurrentNode node = find(word);
+        return node != null && node.flag;
+    }
+
+    //Returns if there is any word in the trie that starts with the given prefix
+
+    public boolean startsWith(String prefix) {
+        return find(prefix) != null;
+    }
+
+    private ConcurrentNode find(String s) {
+        ConcurrentNode node = root;
+        for (int i = 0; i < s.length() && node != null; i++) {
+            node = node.get(s.charAt(i));
+        }
+        return node;
+    }
+}
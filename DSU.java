@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 class DSU {
     int[] parent, size;
 
@@ -11,10 +13,17 @@ class DSU {
     }
 
     int findParent(int x) {
-        if (parent[x] != x) {
-            parent[x] = findParent(parent[x]); // path compression
+        // first pass: find the root
+        int root = x;
+        while (parent[root] != root) root = parent[root];
+
+        // second pass: point every node on the path at the root (path compression)
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
         }
-        return parent[x];
+        return root;
     }
 
     boolean union(int x, int y) {
@@ -0,0 +1,79 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Rough timing harness for the union-find implementations.
+ *
+ * Run with: java DSUBenchmark [n] [edges] [maxThreads]
+ * A random edge stream is unioned by the single-threaded DSU, then split
+ * between 1, 2, 4 ... maxThreads threads sharing one ConcurrentDSU.
+ * The number of successful unions must be the same for every run.
+ */
+public class DSUBenchmark {
+
+    // edges[2 * i], edges[2 * i + 1] = endpoints of edge i
+    static int[] randomEdges(int n, int count, long seed) {
+        Random random = new Random(seed);
+        int edges[] = new int[2 * count];
+        for (int i = 0; i < 2 * count; i++) edges[i] = random.nextInt(n);
+        return edges;
+    }
+
+    static void report(String name, long startNanos, int edges, long merges) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-24s %8.3f s  %12.0f unions/s  merges=%d%n",
+                name, seconds, edges / seconds, merges);
+    }
+
+    static long runSequential(int n, int edges[]) {
+        DSU dsu = new DSU(n);
+        long merges = 0;
+        for (int i = 0; i < edges.length; i += 2) {
+            if (dsu.union(edges[i], edges[i + 1])) merges++;
+        }
+        return merges;
+    }
+
+    static long runConcurrent(int n, int edges[], int threads) throws InterruptedException {
+        ConcurrentDSU dsu = new ConcurrentDSU(n);
+        AtomicLong merges = new AtomicLong();
+        int count = edges.length / 2;
+
+        Thread workers[] = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) count * t / threads), to = (int) ((long) count * (t + 1) / threads);
+            workers[t] = new Thread(() -> {
+                long local = 0;
+                for (int i = from; i < to; i++) {
+                    if (dsu.union(edges[2 * i], edges[2 * i + 1])) local++;
+                }
+                merges.addAndGet(local);
+            });
+        }
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+        return merges.get();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        int edges[] = randomEdges(n, count, 1);
+
+        // warm-up
+        runSequential(n, edges);
+        runConcurrent(n, edges, 1);
+
+        long start = System.nanoTime();
+        long merges = runSequential(n, edges);
+        report("DSU", start, count, merges);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            start = System.nanoTime();
+            merges = runConcurrent(n, edges, threads);
+            report("ConcurrentDSU x" + threads, start, count, merges);
+        }
+    }
+}
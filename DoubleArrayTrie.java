@@ -0,0 +1,252 @@
+import java.util.Arrays;
+
+/*
+ * Double-array trie (Aoe) over bytes.
+ *
+ * The whole trie is two int arrays plus a bitset, with no Node objects:
+ *   child of s with label c   = base[s] + c,   valid only if check[base[s] + c] == s
+ * Strings are walked as their UTF-8 bytes (encoded on the fly, nothing allocated),
+ * so any UTF-16 text works, not just 'a' ... 'z'. Label = byte + 1 (1 ... 256).
+ *
+ * - Slot 1 is the root (check 0, no parent), base[s] == 0 means no children yet.
+ * - Free slots form a doubly linked list stored in the free slots themselves
+ *   (check[t] = ~next, base[t] = ~prev, slot 0 is the list head), so a free slot
+ *   is simply check[t] < 0 and finding room for a node costs no extra memory.
+ *   Single children take the first fitting slot of the list. Searches for several
+ *   children start at a cursor that only moves forward, so the old single holes
+ *   near the head are not rescanned every time (they are left to single children).
+ * - If a new child collides with another node, all children of s are moved to a
+ *   new base where every label fits (relocate).
+ * - Word ends are one bit per slot (terminal[]).
+ * - findBase keeps base + 256 inside the arrays, so base[s] + label never needs a bounds check.
+ */
+class DoubleArrayTrie {
+    static final int ROOT = 1, ALPHABET = 257;
+
+    int base[], check[];
+    long terminal[];
+    int size;           // number of stored keys
+    int cursor;         // free slot where searches for nodes with several children start
+    int minLabel = ALPHABET, maxLabel;  // labels seen so far; children are only looked for in this range
+    int labels[] = new int[ALPHABET];   // scratch for relocate
+
+    DoubleArrayTrie() {
+        this(1 << 10);
+    }
+
+    DoubleArrayTrie(int capacity) {
+        capacity = Math.max(capacity, 2 * ALPHABET);
+        base = new int[0];
+        check = new int[0];
+        terminal = new long[0];
+        grow(capacity);
+    }
+
+    //Inserts a word into the trie
+
+    void insert(String word) {
+        int node = walk(word, true);
+        setTerminal(node);
+    }
+
+    void insert(byte key[]) {
+        int node = ROOT;
+        for (byte b : key) node = child(node, (b & 0xFF) + 1, true);
+        setTerminal(node);
+    }
+
+    //Returns if the word is in the trie
+
+    boolean search(String word) {
+        int node = walk(word, false);
+        return node != 0 && isTerminal(node);
+    }
+
+    boolean search(byte key[]) {
+        int node = walkBytes(key);
+        return node != 0 && isTerminal(node);
+    }
+
+    //Returns if there is any word in the trie that starts with the given prefix
+
+    boolean startsWith(String prefix) {
+        return walk(prefix, false) != 0;
+    }
+
+    boolean startsWith(byte prefix[]) {
+        return walkBytes(prefix) != 0;
+    }
+
+    // Approximate heap used by the arrays
+    long bytesUsed() {
+        return 4L * base.length + 4L * check.length + 8L * terminal.length;
+    }
+
+    int walkBytes(byte key[]) {
+        int node = ROOT;
+        for (int i = 0; i < key.length && node != 0; i++) node = child(node, (key[i] & 0xFF) + 1, false);
+        return node;
+    }
+
+    // Follows the UTF-8 bytes of s; returns the final node, or 0 if a child is missing and create is false
+    int walk(String s, boolean create) {
+        int node = ROOT;
+        int len = s.length();
+        for (int i = 0; i < len && node != 0; i++) {
+            int c = s.charAt(i);
+            if (c < 0x80) {
+                node = child(node, c + 1, create);
+            } else if (c < 0x800) {
+                node = child(node, (0xC0 | (c >> 6)) + 1, create);
+                if (node != 0) node = child(node, (0x80 | (c & 0x3F)) + 1, create);
+            } else if (Character.isHighSurrogate((char) c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint((char) c, s.charAt(++i));
+                node = child(node, (0xF0 | (cp >> 18)) + 1, create);
+                if (node != 0) node = child(node, (0x80 | ((cp >> 12) & 0x3F)) + 1, create);
+                if (node != 0) node = child(node, (0x80 | ((cp >> 6) & 0x3F)) + 1, create);
+                if (node != 0) node = child(node, (0x80 | (cp & 0x3F)) + 1, create);
+            } else {
+                // BMP char (an unpaired surrogate also ends up here, still a unique encoding)
+                node = child(node, (0xE0 | (c >> 12)) + 1, create);
+                if (node != 0) node = child(node, (0x80 | ((c >> 6) & 0x3F)) + 1, create);
+                if (node != 0) node = child(node, (0x80 | (c & 0x3F)) + 1, create);
+            }
+        }
+        return node;
+    }
+
+    // Child of s with the given label; creates it if needed and allowed, else returns 0
+    int child(int s, int label, boolean create) {
+        int b = base[s];
+        if (b != 0) {
+            int t = b + label;
+            if (check[t] == s) return t;
+        }
+        if (!create) return 0;
+
+        minLabel = Math.min(minLabel, label);
+        maxLabel = Math.max(maxLabel, label);
+        if (b == 0 || check[b + label] >= 0) {
+            b = relocate(s, label);
+        }
+        int t = b + label;
+        use(t, s);
+        return t;
+    }
+
+    // Moves all children of s to a base where they and the new label fit; returns the new base
+    int relocate(int s, int newLabel) {
+        int count = 0;
+        int oldBase = base[s];
+        if (oldBase != 0) {
+            for (int c = minLabel; c <= maxLabel; c++) {
+                if (check[oldBase + c] == s) labels[count++] = c;
+            }
+        }
+        labels[count++] = newLabel;
+
+        int newBase = findBase(count);
+
+        for (int i = 0; i < count - 1; i++) {
+            int from = oldBase + labels[i], to = newBase + labels[i];
+            use(to, s);
+            base[to] = base[from];
+            if (isTerminal(from)) terminal[to >>> 6] |= 1L << to;
+
+            // grandchildren must point at the new slot
+            int fromBase = base[from];
+            if (fromBase != 0) {
+                for (int c = minLabel; c <= maxLabel; c++) {
+                    if (check[fromBase + c] == from) check[fromBase + c] = to;
+                }
+            }
+
+            clearTerminal(from);
+            release(from);
+        }
+
+        base[s] = newBase;
+        return newBase;
+    }
+
+    // First base q >= 1 (in free-list order) with all slots q + labels[0 ... count - 1] free
+    int findBase(int count) {
+        int first = labels[0];
+        for (int i = 1; i < count; i++) first = Math.min(first, labels[i]);
+
+        int start = count > 1 && cursor != 0 ? cursor : ~check[0];
+        for (int e = start; ; e = ~check[e]) {
+            if (e == 0 || e + ALPHABET >= check.length) {
+                // list exhausted or too close to the end: continue in freshly added slots
+                int old = check.length;
+                grow(Math.max(old + ALPHABET, e + ALPHABET + 1));
+                if (e == 0) e = old;
+            }
+            int q = e - first;
+            if (q < 1) continue;
+
+            boolean fits = true;
+            for (int i = 0; i < count && fits; i++) {
+                if (check[q + labels[i]] >= 0) fits = false;
+            }
+            if (fits) {
+                if (count > 1) cursor = e;
+                return q;
+            }
+        }
+    }
+
+    // Takes slot t off the free list and gives it a parent
+    void use(int t, int parent) {
+        int prev = ~base[t], next = ~check[t];
+        if (t == cursor) cursor = next;
+        check[prev] = ~next;
+        base[next] = ~prev;
+        check[t] = parent;
+        base[t] = 0;
+    }
+
+    // Puts slot t back at the end of the free list
+    void release(int t) {
+        int last = ~base[0];
+        check[last] = ~t;
+        base[t] = ~last;
+        check[t] = ~0;
+        base[0] = ~t;
+    }
+
+    // Extends the arrays to at least needed slots; the new slots join the free list
+    void grow(int needed) {
+        int old = check.length;
+        if (needed <= old) return;
+        int capacity = Math.max(needed, old + (old >> 1));
+        base = Arrays.copyOf(base, capacity);
+        check = Arrays.copyOf(check, capacity);
+        terminal = Arrays.copyOf(terminal, (capacity + 63) >>> 6);
+
+        if (old == 0) {
+            // empty list: the head points at itself
+            check[0] = ~0;
+            base[0] = ~0;
+            // slots below ALPHABET would need base < 1 for most labels, so they are
+            // never handed out; they stay "used" (check 0) like the root
+            old = ALPHABET;
+        }
+        for (int t = old; t < capacity; t++) release(t);
+    }
+
+    boolean isTerminal(int t) {
+        return (terminal[t >>> 6] & (1L << t)) != 0;
+    }
+
+    void setTerminal(int t) {
+        if (!isTerminal(t)) {
+            terminal[t >>> 6] |= 1L << t;
+            size++;
+        }
+    }
+
+    void clearTerminal(int t) {
+        terminal[t >>> 6] &= ~(1L << t);
+    }
+}
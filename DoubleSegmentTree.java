@@ -0,0 +1,192 @@
+// double-valued segment trees: same API as SegmentTree / SegmentTreeLazy, for latencies and other real-valued data.
+// Operation (MIN / MAX / SUM) is the shared enum in Operation.java
+
+class DoubleSegmentTree {
+    double seg[];
+    Operation operation;
+    int n;
+
+    // Constructor directly takes arr[]
+    DoubleSegmentTree(double arr[], Operation operation) {
+        this.n = arr.length;
+        seg = new double[4 * n + 1];
+        this.operation = operation;
+        build(0, 0, n - 1, arr);
+    }
+
+    void build(int ind, int left, int right, double arr[]) {
+        if (left == right) {
+            seg[ind] = arr[left];
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        build(2 * ind + 1, left, mid, arr);
+        build(2 * ind + 2, mid + 1, right, arr);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+
+    double query(int ind, int left, int right, int leftQ, int rightQ) {
+        // No overlap
+        if (leftQ > right || rightQ < left)
+            return operation.identityDouble();
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ)
+            return seg[ind];
+
+        // Partial overlap
+        int mid = (left + right) / 2;
+
+        double leftResult = query(2 * ind + 1, left, mid, leftQ, rightQ);
+        double rightResult = query(2 * ind + 2, mid + 1, right, leftQ, rightQ);
+
+        return operation.merge(leftResult, rightResult);
+    }
+
+    // User-friendly query function
+    double query(int leftQ, int rightQ) {
+        return query(0, 0, n - 1, leftQ, rightQ);
+    }
+
+    void pointUpdate(int ind, int left, int right, int indQ, double value) {
+        if (left == right) {
+            seg[ind] = value;
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        if (indQ <= mid)
+            pointUpdate(2 * ind + 1, left, mid, indQ, value);
+        else
+            pointUpdate(2 * ind + 2, mid + 1, right, indQ, value);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+
+    // User-friendly point update function
+    void pointUpdate(int indQ, double value) {
+        pointUpdate(0, 0, n - 1, indQ, value);
+    }
+}
+
+class DoubleSegmentTreeLazy {
+    double seg[];
+    double lazy[];
+    Operation operation;
+    int n;
+
+    // Constructor directly takes arr[]
+    DoubleSegmentTreeLazy(double arr[], Operation operation) {
+        this.n = arr.length;
+        seg = new double[4 * n + 1];
+        lazy = new double[4 * n + 1];
+        this.operation = operation;
+        build(0, 0, n - 1, arr);
+    }
+
+    void build(int ind, int left, int right, double arr[]) {
+        if (left == right) {
+            seg[ind] = arr[left];
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        build(2 * ind + 1, left, mid, arr);
+        build(2 * ind + 2, mid + 1, right, arr);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+
+    void pushDown(int ind, int left, int right) {
+        if (lazy[ind] != 0) {
+            seg[ind] = operation.applyLazy(
+                    seg[ind],
+                    lazy[ind],
+                    right - left + 1
+            );
+
+            if (left != right) {
+                lazy[2 * ind + 1] += lazy[ind];
+                lazy[2 * ind + 2] += lazy[ind];
+            }
+            lazy[ind] = 0;
+        }
+    }
+
+    void rangeUpdate(int ind, int left, int right, int leftQ, int rightQ, double value) {
+        pushDown(ind, left, right);
+
+        // No overlap
+        if (rightQ < left || right < leftQ) return;
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ) {
+            lazy[ind] += value;
+            pushDown(ind, left, right);
+            return;
+        }
+
+        // Partial overlap
+        int mid = (left + right) / 2;
+
+        rangeUpdate(2 * ind + 1, left, mid, leftQ, rightQ, value);
+        rangeUpdate(2 * ind + 2, mid + 1, right, leftQ, rightQ, value);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+
+    double rangeQuery(int ind, int left, int right, int leftQ, int rightQ) {
+        pushDown(ind, left, right);
+
+        // No overlap
+        if (rightQ < left || right < leftQ)
+            return operation.identityDouble();
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ)
+            return seg[ind];
+
+        // Partial overlap
+        int mid = (left + right) / 2;
+
+        double leftResult = rangeQuery(2 * ind + 1, left, mid, leftQ, rightQ);
+        double rightResult = rangeQuery(2 * ind + 2, mid + 1, right, leftQ, rightQ);
+
+        return operation.merge(leftResult, rightResult);
+    }
+
+    // User-friendly range update
+    void rangeUpdate(int leftQ, int rightQ, double value) {
+        if (leftQ < 0) leftQ = 0;
+        if (rightQ >= n) rightQ = n - 1;
+        if (leftQ > rightQ) return;
+
+        rangeUpdate(0, 0, n - 1, leftQ, rightQ, value);
+    }
+
+    // User-friendly range query
+    double rangeQuery(int leftQ, int rightQ) {
+        if (leftQ < 0) leftQ = 0;
+        if (rightQ >= n) rightQ = n - 1;
+        if (leftQ > rightQ) return operation.identityDouble();
+
+        return rangeQuery(0, 0, n - 1, leftQ, rightQ);
+    }
+}
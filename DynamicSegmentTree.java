@@ -0,0 +1,195 @@
+import java.util.Arrays;
+
+// Operation (MIN / MAX / SUM) is the shared enum in Operation.java
+
+/*
+ * Sparse / dynamic segment tree over a long coordinate range [lo, hi].
+ *
+ * Nothing is allocated up front: a node is created the first time an update
+ * or a pushDown needs it, so memory grows with the number of touched nodes
+ * (O(updates * log(range))) instead of 4 * (hi - lo + 1).
+ *
+ * Every position starts at 0. Nodes are indices into parallel primitive
+ * arrays (value, lazy, leftChild, rightChild); child index 0 means "not
+ * created yet", which is safe because node 0 is the root and is never a child.
+ *
+ * Supports point assign, range add (lazy) and range query for MIN / MAX / SUM.
+ * The range must be narrower than 2^63 so hi - lo + 1 fits in a long.
+ */
+class DynamicSegmentTree {
+    long value[], lazy[];
+    int leftChild[], rightChild[];
+    int nodeCount;
+
+    Operation operation;
+    long lo, hi;
+
+    DynamicSegmentTree(long lo, long hi, Operation operation) {
+        this.lo = lo;
+        this.hi = hi;
+        this.operation = operation;
+
+        int capacity = 1 << 10;
+        value = new long[capacity];
+        lazy = new long[capacity];
+        leftChild = new int[capacity];
+        rightChild = new int[capacity];
+
+        newNode(); // root
+    }
+
+    int newNode() {
+        if (nodeCount == value.length) {
+            int capacity = value.length + (value.length >> 1);
+            value = Arrays.copyOf(value, capacity);
+            lazy = Arrays.copyOf(lazy, capacity);
+            leftChild = Arrays.copyOf(leftChild, capacity);
+            rightChild = Arrays.copyOf(rightChild, capacity);
+        }
+        // untouched positions are 0, so a fresh node is 0 for MIN, MAX and SUM
+        value[nodeCount] = 0;
+        lazy[nodeCount] = 0;
+        leftChild[nodeCount] = 0;
+        rightChild[nodeCount] = 0;
+        return nodeCount++;
+    }
+
+    // Midpoint without overflow for any lo <= hi (hi - lo is read as unsigned)
+    static long mid(long left, long right) {
+        return left + ((right - left) >>> 1);
+    }
+
+    // newNode() may reallocate the arrays, so the child index is stored only after it returns
+    int left(int node) {
+        if (leftChild[node] == 0) {
+            int child = newNode();
+            leftChild[node] = child;
+        }
+        return leftChild[node];
+    }
+
+    int right(int node) {
+        if (rightChild[node] == 0) {
+            int child = newNode();
+            rightChild[node] = child;
+        }
+        return rightChild[node];
+    }
+
+    void applyAdd(int node, long left, long right, long add) {
+        value[node] = operation.applyLazy(value[node], add, right - left + 1);
+        lazy[node] += add;
+    }
+
+    // Node values are always up to date; the tag is only pending for the children
+    void pushDown(int node, long left, long right) {
+        if (lazy[node] == 0) return;
+
+        long mid = mid(left, right);
+        applyAdd(left(node), left, mid, lazy[node]);
+        applyAdd(right(node), mid + 1, right, lazy[node]);
+        lazy[node] = 0;
+    }
+
+    void pull(int node) {
+        // a missing child is an untouched range of zeros
+        value[node] = operation.merge(
+                leftChild[node] == 0 ? 0 : value[leftChild[node]],
+                rightChild[node] == 0 ? 0 : value[rightChild[node]]
+        );
+    }
+
+    void pointUpdate(int node, long left, long right, long indQ, long newValue) {
+        if (left == right) {
+            value[node] = newValue;
+            lazy[node] = 0;
+            return;
+        }
+
+        pushDown(node, left, right);
+
+        long mid = mid(left, right);
+
+        if (indQ <= mid)
+            pointUpdate(left(node), left, mid, indQ, newValue);
+        else
+            pointUpdate(right(node), mid + 1, right, indQ, newValue);
+
+        pull(node);
+    }
+
+    void rangeUpdate(int node, long left, long right, long leftQ, long rightQ, long add) {
+        // No overlap
+        if (rightQ < left || right < leftQ) return;
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ) {
+            applyAdd(node, left, right, add);
+            return;
+        }
+
+        // Partial overlap
+        pushDown(node, left, right);
+
+        long mid = mid(left, right);
+
+        rangeUpdate(left(node), left, mid, leftQ, rightQ, add);
+        rangeUpdate(right(node), mid + 1, right, leftQ, rightQ, add);
+
+        pull(node);
+    }
+
+    long query(int node, long left, long right, long leftQ, long rightQ) {
+        // No overlap
+        if (rightQ < left || right < leftQ)
+            return operation.identityLong();
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ)
+            return value[node];
+
+        // Partial overlap
+        pushDown(node, left, right);
+
+        long mid = mid(left, right);
+
+        // an untouched child is all zeros: only its overlap length matters
+        long leftResult = leftChild[node] == 0
+                ? untouched(left, mid, leftQ, rightQ)
+                : query(leftChild[node], left, mid, leftQ, rightQ);
+        long rightResult = rightChild[node] == 0
+                ? untouched(mid + 1, right, leftQ, rightQ)
+                : query(rightChild[node], mid + 1, right, leftQ, rightQ);
+
+        return operation.merge(leftResult, rightResult);
+    }
+
+    // Result for the part of [leftQ, rightQ] inside a range of zeros that has no node
+    long untouched(long left, long right, long leftQ, long rightQ) {
+        if (rightQ < left || right < leftQ) return operation.identityLong();
+        return 0;
+    }
+
+    // User-friendly point assign: arr[indQ] = value
+    void pointUpdate(long indQ, long newValue) {
+        pointUpdate(0, lo, hi, indQ, newValue);
+    }
+
+    // User-friendly range add: arr[leftQ...rightQ] += add
+    void rangeUpdate(long leftQ, long rightQ, long add) {
+        if (leftQ < lo) leftQ = lo;
+        if (rightQ > hi) rightQ = hi;
+        if (leftQ > rightQ) return;
+
+        rangeUpdate(0, lo, hi, leftQ, rightQ, add);
+    }
+
+    // User-friendly range query
+    long query(long leftQ, long rightQ) {
+        if (leftQ < lo) leftQ = lo;
+        if (rightQ > hi) rightQ = hi;
+        if (leftQ > rightQ) return operation.identityLong();
+
+        return query(0, lo, hi, leftQ, rightQ);
+    }
+}
@@ -1,5 +1,7 @@
-// https://www.youtube.com/watch?v=Gr-eKRuWIQc&t=670s
-static int[] constructLps(String s){
+class Kmp {
+
+    // https://www.youtube.com/watch?v=Gr-eKRuWIQc&t=670s
+    static int[] constructLps(String s){
         int n = s.length();
         int lps[] = new int[n];
         for(int i = 1; i < n; i++){
@@ -10,4 +12,5 @@ static int[] constructLps(String s){
             lps[i] = prev_idx + (s.charAt(i) == s.charAt(prev_idx) ? 1 : 0);
         }
         return lps;
+    }
 }
@@ -0,0 +1,139 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * Streaming KMP search over bytes.
+ *
+ * The lps array of the pattern is built once (same recurrence as Kmp.constructLps).
+ * Input is fed in chunks of any size: `matched` (how many pattern bytes end
+ * at the current position) and `position` (bytes consumed so far) are kept
+ * between calls, so a match split across two chunks is still found and nothing
+ * ever needs the whole input in memory.
+ *
+ * Match start offsets (overlapping ones too) are appended to matches[0 ... matchCount - 1],
+ * a growable long[], so no Long is boxed per match.
+ */
+class KmpMatcher {
+    static final int READ_BUFFER = 1 << 20;
+    static final long MAP_CHUNK = 1L << 30;
+
+    byte pattern[];
+    int lps[];
+
+    // stream state
+    int matched;
+    long position;
+
+    long matches[] = new long[16];
+    int matchCount;
+
+    KmpMatcher(String pattern) {
+        this(pattern.getBytes(StandardCharsets.UTF_8));
+    }
+
+    KmpMatcher(byte pattern[]) {
+        if (pattern.length == 0) throw new IllegalArgumentException("Empty pattern");
+        this.pattern = pattern.clone();
+        this.lps = constructLps(this.pattern);
+    }
+
+    static int[] constructLps(byte s[]) {
+        int n = s.length;
+        int lps[] = new int[n];
+        for (int i = 1; i < n; i++) {
+            int prev_idx = lps[i - 1];
+            while (prev_idx > 0 && s[i] != s[prev_idx]) {
+                prev_idx = lps[prev_idx - 1];
+            }
+            lps[i] = prev_idx + (s[i] == s[prev_idx] ? 1 : 0);
+        }
+        return lps;
+    }
+
+    // Starts a new stream; keeps the pattern, forgets state and matches
+    void reset() {
+        matched = 0;
+        position = 0;
+        matchCount = 0;
+    }
+
+    // Feeds data[from ... to - 1] as the next bytes of the stream
+    void feed(byte data[], int from, int to) {
+        byte p[] = pattern;
+        int m = p.length, j = matched;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            while (j > 0 && b != p[j]) j = lps[j - 1];
+            if (b == p[j]) j++;
+            if (j == m) {
+                addMatch(position + (i - from) - m + 1);
+                j = lps[m - 1];
+            }
+        }
+        matched = j;
+        position += to - from;
+    }
+
+    // Feeds the remaining bytes of the buffer (heap or direct / mapped) and consumes them
+    void feed(ByteBuffer chunk) {
+        int from = chunk.position(), to = chunk.limit();
+        if (chunk.hasArray()) {
+            int offset = chunk.arrayOffset();
+            feed(chunk.array(), offset + from, offset + to);
+            chunk.position(to);
+            return;
+        }
+
+        byte p[] = pattern;
+        int m = p.length, j = matched;
+        for (int i = from; i < to; i++) {
+            byte b = chunk.get(i);
+            while (j > 0 && b != p[j]) j = lps[j - 1];
+            if (b == p[j]) j++;
+            if (j == m) {
+                addMatch(position + (i - from) - m + 1);
+                j = lps[m - 1];
+            }
+        }
+        matched = j;
+        position += to - from;
+        chunk.position(to);
+    }
+
+    // Reads the channel to its end through one reused direct buffer; returns the number of new matches
+    int search(ReadableByteChannel channel) throws IOException {
+        int before = matchCount;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            feed(buffer);
+            buffer.clear();
+        }
+        return matchCount - before;
+    }
+
+    // Searches a file by mapping it 1 GB at a time; the OS pages data in and out
+    int search(Path file) throws IOException {
+        int before = matchCount;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long start = 0; start < size; start += MAP_CHUNK) {
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAP_CHUNK, size - start));
+                feed(chunk);
+            }
+        }
+        return matchCount - before;
+    }
+
+    void addMatch(long offset) {
+        if (matchCount == matches.length) matches = Arrays.copyOf(matches, 2 * matches.length);
+        matches[matchCount++] = offset;
+    }
+}
@@ -0,0 +1,324 @@
+import java.util.Arrays;
+
+/*
+ * Linear (Euler) sieve with a smallest-prime-factor table.
+ *
+ * Every composite i is crossed out exactly once, by its smallest prime factor:
+ * for each i and each prime p <= spf[i], spf[i * p] = p. So the sieve is O(n),
+ * and spf[] turns factorisation of any x <= n into O(log x) table lookups.
+ *
+ * - factorize(x, primesOut, expsOut) writes into caller arrays, nothing is allocated.
+ * - phi(), mu(), divisorCount() fill whole tables in O(n) from spf[].
+ * - isPrime64 / factorize64 handle values beyond the table
+ *   (Miller-Rabin + Pollard-Brent rho, with Montgomery multiplication).
+ */
+class LinearSieve {
+    int n;
+    int spf[];          // spf[i] = smallest prime factor of i (i >= 2)
+    int primes[];
+    int primeCount;
+
+    long stack[] = new long[64];   // scratch for factorize64: a long has < 64 prime factors
+
+    LinearSieve(int n) {
+        this.n = n;
+        spf = new int[Math.max(n + 1, 2)];
+        primes = new int[Math.max(16, (int) (1.26 * n / Math.max(1, Math.log(n))) + 16)];
+
+        for (int i = 2; i <= n; i++) {
+            if (spf[i] == 0) {
+                spf[i] = i;
+                if (primeCount == primes.length) primes = Arrays.copyOf(primes, 2 * primes.length);
+                primes[primeCount++] = i;
+            }
+            int limit = Math.min(spf[i], n / i);
+            for (int k = 0; k < primeCount && primes[k] <= limit; k++) {
+                spf[i * primes[k]] = primes[k];
+            }
+        }
+    }
+
+    boolean isPrime(int x) {
+        return x >= 2 && spf[x] == x;
+    }
+
+    /*
+     * Writes the distinct prime factors of x (1 <= x <= n) in increasing order into
+     * primesOut and their exponents into expsOut; returns how many there are.
+     * 9 slots are enough for any int.
+     */
+    int factorize(int x, int primesOut[], int expsOut[]) {
+        int count = 0;
+        while (x > 1) {
+            int p = spf[x], e = 0;
+            do {
+                x /= p;
+                e++;
+            } while (x % p == 0);
+            primesOut[count] = p;
+            expsOut[count++] = e;
+        }
+        return count;
+    }
+
+    // phi[i] = Euler's totient of i, for 0 <= i <= n
+    int[] phi() {
+        int phi[] = new int[n + 1];
+        if (n >= 1) phi[1] = 1;
+        for (int i = 2; i <= n; i++) {
+            int p = spf[i], j = i / p;
+            phi[i] = j % p == 0 ? phi[j] * p : phi[j] * (p - 1);
+        }
+        return phi;
+    }
+
+    // mu[i] = Moebius function of i: 0 if a square divides i, else (-1)^(number of primes)
+    byte[] mu() {
+        byte mu[] = new byte[n + 1];
+        if (n >= 1) mu[1] = 1;
+        for (int i = 2; i <= n; i++) {
+            int p = spf[i], j = i / p;
+            mu[i] = j % p == 0 ? 0 : (byte) -mu[j];
+        }
+        return mu;
+    }
+
+    /*
+     * d[i] = number of divisors of i. Uses i = p^e * rest (p = spf[i], rest coprime to p):
+     * d[i] = d[rest] * (e + 1). rest and e are carried from i / p.
+     */
+    int[] divisorCount() {
+        int d[] = new int[n + 1];
+        int rest[] = new int[n + 1];
+        byte exp[] = new byte[n + 1];
+        if (n >= 1) d[1] = 1;
+        for (int i = 2; i <= n; i++) {
+            int p = spf[i], j = i / p;
+            if (j % p == 0) {
+                rest[i] = rest[j];
+                exp[i] = (byte) (exp[j] + 1);
+            } else {
+                rest[i] = j;
+                exp[i] = 1;
+            }
+            d[i] = d[rest[i]] * (exp[i] + 1);
+        }
+        return d;
+    }
+
+    /*
+     * ---------------------------------------------------------------
+     * 64-bit values (0 <= x <= Long.MAX_VALUE)
+     * ---------------------------------------------------------------
+     */
+
+    static final long BASES[] = {2, 325, 9375, 28178, 450775, 9780504, 1795265022};  // deterministic below 2^64
+    static final int SMALL_PRIMES[] = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+    static final int TRIAL_LIMIT = 1 << 10;
+
+    /*
+     * Same output format as factorize (primes increasing). Small factors come
+     * from trial division / the table, and big ones from Pollard rho. Up to 15
+     * slots are needed.
+     */
+    int factorize64(long x, long primesOut[], int expsOut[]) {
+        int top = 0, found = 0;
+
+        // trial division by the small primes of the table
+        for (int k = 0; k < primeCount && primes[k] < TRIAL_LIMIT && x > n; k++) {
+            int p = primes[k];
+            if (x % p == 0) {
+                int e = 0;
+                do {
+                    x /= p;
+                    e++;
+                } while (x % p == 0);
+                primesOut[found] = p;
+                expsOut[found++] = e;
+            }
+        }
+
+        // split what is left into primes; every piece either fits the table or goes to rho
+        if (x > 1) stack[top++] = x;
+        while (top > 0) {
+            long c = stack[--top];
+            if (c <= n) {
+                int v = (int) c;
+                while (v > 1) {
+                    int p = spf[v];
+                    v /= p;
+                    found = addFactor(primesOut, expsOut, found, p);
+                }
+            } else if (isPrime64(c)) {
+                found = addFactor(primesOut, expsOut, found, c);
+            } else {
+                long d = pollardRho(c);
+                stack[top++] = d;
+                stack[top++] = c / d;
+            }
+        }
+
+        // insertion sort by prime (at most 15 distinct)
+        for (int i = 1; i < found; i++) {
+            long p = primesOut[i];
+            int e = expsOut[i], j = i - 1;
+            while (j >= 0 && primesOut[j] > p) {
+                primesOut[j + 1] = primesOut[j];
+                expsOut[j + 1] = expsOut[j];
+                j--;
+            }
+            primesOut[j + 1] = p;
+            expsOut[j + 1] = e;
+        }
+        return found;
+    }
+
+    static int addFactor(long primesOut[], int expsOut[], int found, long p) {
+        for (int i = 0; i < found; i++) {
+            if (primesOut[i] == p) {
+                expsOut[i]++;
+                return found;
+            }
+        }
+        primesOut[found] = p;
+        expsOut[found] = 1;
+        return found + 1;
+    }
+
+    // Deterministic Miller-Rabin for 0 <= x <= Long.MAX_VALUE
+    static boolean isPrime64(long x) {
+        if (x < 2) return false;
+        for (int p : SMALL_PRIMES) {
+            if (x % p == 0) return x == p;
+        }
+        if (x < 37 * 37) return true;
+
+        Montgomery mont = new Montgomery(x);
+        long d = x - 1;
+        int s = Long.numberOfTrailingZeros(d);
+        d >>>= s;
+        long one = mont.one, minusOne = x - one;
+
+        for (long base : BASES) {
+            long a = base % x;
+            if (a == 0) continue;
+            long y = mont.pow(mont.toMont(a), d);
+            if (y == one || y == minusOne) continue;
+
+            boolean composite = true;
+            for (int r = 1; r < s && composite; r++) {
+                y = mont.mul(y, y);
+                if (y == minusOne) composite = false;
+            }
+            if (composite) return false;
+        }
+        return true;
+    }
+
+    /*
+     * A non-trivial factor of the odd composite x (Pollard rho, Brent's cycle
+     * finding). |y - z| values are multiplied together in batches of 128 so one
+     * gcd covers many steps. If a batch overshoots (gcd == x), the batch is
+     * replayed one step at a time. If that also fails, the next constant c is tried.
+     */
+    static long pollardRho(long x) {
+        if ((x & 1) == 0) return 2;
+        Montgomery mont = new Montgomery(x);
+
+        for (long c = 1; ; c++) {
+            long cm = mont.toMont(c);
+            long y = mont.toMont(2), z = y, saved = y, q = mont.one, g = 1;
+
+            for (long r = 1; g == 1; r <<= 1) {
+                z = y;
+                for (long i = 0; i < r; i++) y = mont.add(mont.mul(y, y), cm);
+
+                for (long k = 0; k < r && g == 1; k += 128) {
+                    saved = y;
+                    for (long i = 0; i < Math.min(128, r - k); i++) {
+                        y = mont.add(mont.mul(y, y), cm);
+                        q = mont.mul(q, Math.abs(z - y));
+                    }
+                    g = gcd(q, x);
+                }
+            }
+
+            if (g == x) {
+                // replay the last batch step by step
+                g = 1;
+                while (g == 1) {
+                    saved = mont.add(mont.mul(saved, saved), cm);
+                    g = gcd(Math.abs(z - saved), x);
+                }
+            }
+            if (g != x) return g;
+        }
+    }
+
+    static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
+
+/*
+ * Montgomery arithmetic modulo an odd m < 2^63: a * b mod m without division
+ * or BigInteger. Values are kept as a * 2^64 mod m.
+ */
+class Montgomery {
+    long m;
+    long inv;       // m^-1 mod 2^64
+    long one;       // 2^64 mod m (1 in Montgomery form)
+    long r2;        // 2^128 mod m
+
+    Montgomery(long m) {
+        this.m = m;
+        long x = m;                       // Newton: each step doubles the correct low bits
+        for (int i = 0; i < 5; i++) x *= 2 - m * x;
+        inv = x;
+        one = Long.remainderUnsigned(-m, m);
+
+        long r = one;
+        for (int i = 0; i < 64; i++) {    // r2 = one * 2^64 mod m by doubling
+            r <<= 1;
+            if (Long.compareUnsigned(r, m) >= 0) r -= m;
+        }
+        r2 = r;
+    }
+
+    // high 64 bits of the unsigned product a * b (b < 2^63)
+    static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b);
+    }
+
+    // a * b * 2^-64 mod m, for a, b < m
+    long mul(long a, long b) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        long t = hi - unsignedMultiplyHigh(lo * inv, m);
+        return t < 0 ? t + m : t;
+    }
+
+    long add(long a, long b) {
+        long s = a + b;
+        return s >= m || s < 0 ? s - m : s;
+    }
+
+    long toMont(long a) {
+        return mul(a % m, r2);
+    }
+
+    long pow(long base, long e) {
+        long result = one;
+        while (e > 0) {
+            if ((e & 1) == 1) result = mul(result, base);
+            base = mul(base, base);
+            e >>>= 1;
+        }
+        return result;
+    }
+}
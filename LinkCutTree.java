@@ -0,0 +1,225 @@
+/*
+ * Link-cut tree for a forest that changes over time (Sleator & Tarjan).
+ *
+ * BinaryLifting / FlatTree need a full O(n log n) rebuild after any edge change.
+ * Here link, cut, path weight and LCA are all O(log n) amortised.
+ *
+ * The forest is stored as preferred paths, each kept in a splay tree ordered by
+ * depth. All nodes are indices into flat arrays (0 = null), no objects.
+ *
+ * Edge weights: every edge (u, v, w) gets its own node with value w, placed
+ * between u and v (vertices have value 0). Re-rooting reverses paths, so
+ * weights stay attached to the edge itself, not to "the child end".
+ * Vertices are 1 ... n (callers use 0 ... n - 1), edge nodes are n + 1 ... 2n - 1
+ * and are recycled through a free list.
+ */
+class LinkCutTree {
+    static final long NOT_CONNECTED = Long.MIN_VALUE;   // pathWeight of two different trees
+
+    int n;
+    int left[], right[], parent[];
+    boolean reversed[];
+    long value[], sum[];
+    int size[];
+
+    // free edge nodes
+    int freeEdges[];
+    int freeCount;
+
+    // scratch stack for pushing reversals down before a splay
+    int pushStack[];
+
+    LinkCutTree(int n) {
+        this.n = n;
+        int capacity = 2 * n;
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        reversed = new boolean[capacity];
+        value = new long[capacity];
+        sum = new long[capacity];
+        size = new int[capacity];
+        pushStack = new int[capacity];
+
+        for (int v = 1; v <= n; v++) size[v] = 1;
+
+        freeEdges = new int[n];
+        for (int e = 2 * n - 1; e > n; e--) freeEdges[freeCount++] = e;
+    }
+
+    boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == 0 || (left[p] != x && right[p] != x);
+    }
+
+    void pull(int x) {
+        sum[x] = sum[left[x]] + sum[right[x]] + value[x];
+        size[x] = size[left[x]] + size[right[x]] + 1;
+    }
+
+    void reverse(int x) {
+        if (x == 0) return;
+        int temp = left[x];
+        left[x] = right[x];
+        right[x] = temp;
+        reversed[x] = !reversed[x];
+    }
+
+    void push(int x) {
+        if (reversed[x]) {
+            reverse(left[x]);
+            reverse(right[x]);
+            reversed[x] = false;
+        }
+    }
+
+    void rotate(int x) {
+        int p = parent[x], g = parent[p];
+        boolean pIsRoot = isSplayRoot(p);
+
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != 0) parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != 0) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        parent[x] = g;
+
+        // g keeps its path-parent pointer if p was the splay root
+        if (!pIsRoot) {
+            if (left[g] == p) left[g] = x;
+            else right[g] = x;
+        }
+
+        pull(p);
+        pull(x);
+    }
+
+    void splay(int x) {
+        // push pending reversals from the splay root down to x
+        int top = 0;
+        pushStack[top++] = x;
+        for (int y = x; !isSplayRoot(y); y = parent[y]) pushStack[top++] = parent[y];
+        while (top > 0) push(pushStack[--top]);
+
+        while (!isSplayRoot(x)) {
+            int p = parent[x], g = parent[p];
+            if (!isSplayRoot(p)) {
+                // zig-zig rotates the parent first, zig-zag rotates x twice
+                boolean zigZig = (left[g] == p) == (left[p] == x);
+                rotate(zigZig ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    // Makes root...x the preferred path; returns the last node where the path changed (used for LCA)
+    int access(int x) {
+        int last = 0;
+        for (int y = x; y != 0; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            pull(y);
+            last = y;
+        }
+        splay(x);
+        return last;
+    }
+
+    void makeRoot(int x) {
+        access(x);
+        reverse(x);
+    }
+
+    int findRoot(int x) {
+        access(x);
+        while (true) {
+            push(x);
+            if (left[x] == 0) break;
+            x = left[x];
+        }
+        splay(x);
+        return x;
+    }
+
+    boolean connected(int u, int v) {
+        return findRoot(u + 1) == findRoot(v + 1);
+    }
+
+    // Adds edge (u, v) with the given weight; false if u and v are already connected
+    boolean link(int u, int v, long weight) {
+        int x = u + 1, y = v + 1;
+        if (x == y || findRoot(x) == findRoot(y)) return false;
+
+        int e = freeEdges[--freeCount];
+        left[e] = right[e] = parent[e] = 0;
+        reversed[e] = false;
+        value[e] = sum[e] = weight;
+        size[e] = 1;
+
+        // u - e - v
+        makeRoot(x);
+        parent[x] = e;
+        makeRoot(e);
+        parent[e] = y;
+        return true;
+    }
+
+    // Removes edge (u, v); false if there is no such edge
+    boolean cut(int u, int v) {
+        int x = u + 1, y = v + 1;
+        makeRoot(x);
+
+        // the path x ... y must be exactly x, e, y
+        if (findRoot(y) != x) return false;
+        access(y);
+        if (size[y] != 3) return false;
+
+        int sub = left[y];
+        left[y] = 0;
+        parent[sub] = 0;
+        pull(y);
+
+        // sub's splay tree holds exactly x and the edge node
+        push(sub);
+        int e = sub > n ? sub : (left[sub] != 0 ? left[sub] : right[sub]);
+        isolate(x);
+        isolate(e);
+
+        freeEdges[freeCount++] = e;
+        return true;
+    }
+
+    void isolate(int x) {
+        left[x] = right[x] = parent[x] = 0;
+        reversed[x] = false;
+        pull(x);
+    }
+
+    /*
+     * Sum of edge weights on the path u ... v, or NOT_CONNECTED if they are in
+     * different trees. Weights may be negative, so -1 cannot be the sentinel.
+     */
+    long pathWeight(int u, int v) {
+        int x = u + 1, y = v + 1;
+        if (findRoot(x) != findRoot(y)) return NOT_CONNECTED;
+
+        makeRoot(x);
+        access(y);
+        return sum[y];
+    }
+
+    // LCA of u and v when the tree is rooted at root, or -1 if they are not all connected
+    int lca(int root, int u, int v) {
+        int r = root + 1, x = u + 1, y = v + 1;
+        if (findRoot(r) != findRoot(x) || findRoot(r) != findRoot(y)) return -1;
+
+        makeRoot(r);
+        access(x);
+        return access(y) - 1;
+    }
+}
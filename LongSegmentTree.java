@@ -0,0 +1,192 @@
+// long-valued segment trees: same API as SegmentTree / SegmentTreeLazy, so SUM does not overflow at 2^31.
+// Operation (MIN / MAX / SUM) is the shared enum in Operation.java
+
+class LongSegmentTree {
+    long seg[];
+    Operation operation;
+    int n;
+
+    // Constructor directly takes arr[]
+    LongSegmentTree(long arr[], Operation operation) {
+        this.n = arr.length;
+        seg = new long[4 * n + 1];
+        this.operation = operation;
+        build(0, 0, n - 1, arr);
+    }
+
+    void build(int ind, int left, int right, long arr[]) {
+        if (left == right) {
+            seg[ind] = arr[left];
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        build(2 * ind + 1, left, mid, arr);
+        build(2 * ind + 2, mid + 1, right, arr);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+
+    long query(int ind, int left, int right, int leftQ, int rightQ) {
+        // No overlap
+        if (leftQ > right || rightQ < left)
+            return operation.identityLong();
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ)
+            return seg[ind];
+
+        // Partial overlap
+        int mid = (left + right) / 2;
+
+        long leftResult = query(2 * ind + 1, left, mid, leftQ, rightQ);
+        long rightResult = query(2 * ind + 2, mid + 1, right, leftQ, rightQ);
+
+        return operation.merge(leftResult, rightResult);
+    }
+
+    // User-friendly query function
+    long query(int leftQ, int rightQ) {
+        return query(0, 0, n - 1, leftQ, rightQ);
+    }
+
+    void pointUpdate(int ind, int left, int right, int indQ, long value) {
+        if (left == right) {
+            seg[ind] = value;
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        if (indQ <= mid)
+            pointUpdate(2 * ind + 1, left, mid, indQ, value);
+        else
+            pointUpdate(2 * ind + 2, mid + 1, right, indQ, value);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+
+    // User-friendly point update function
+    void pointUpdate(int indQ, long value) {
+        pointUpdate(0, 0, n - 1, indQ, value);
+    }
+}
+
+class LongSegmentTreeLazy {
+    long seg[];
+    long lazy[];
+    Operation operation;
+    int n;
+
+    // Constructor directly takes arr[]
+    LongSegmentTreeLazy(long arr[], Operation operation) {
+        this.n = arr.length;
+        seg = new long[4 * n + 1];
+        lazy = new long[4 * n + 1];
+        this.operation = operation;
+        build(0, 0, n - 1, arr);
+    }
+
+    void build(int ind, int left, int right, long arr[]) {
+        if (left == right) {
+            seg[ind] = arr[left];
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        build(2 * ind + 1, left, mid, arr);
+        build(2 * ind + 2, mid + 1, right, arr);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+
+    void pushDown(int ind, int left, int right) {
+        if (lazy[ind] != 0) {
+            seg[ind] = operation.applyLazy(
+                    seg[ind],
+                    lazy[ind],
+                    right - left + 1
+            );
+
+            if (left != right) {
+                lazy[2 * ind + 1] += lazy[ind];
+                lazy[2 * ind + 2] += lazy[ind];
+            }
+            lazy[ind] = 0;
+        }
+    }
+
+    void rangeUpdate(int ind, int left, int right, int leftQ, int rightQ, long value) {
+        pushDown(ind, left, right);
+
+        // No overlap
+        if (rightQ < left || right < leftQ) return;
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ) {
+            lazy[ind] += value;
+            pushDown(ind, left, right);
+            return;
+        }
+
+        // Partial overlap
+        int mid = (left + right) / 2;
+
+        rangeUpdate(2 * ind + 1, left, mid, leftQ, rightQ, value);
+        rangeUpdate(2 * ind + 2, mid + 1, right, leftQ, rightQ, value);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+
+    long rangeQuery(int ind, int left, int right, int leftQ, int rightQ) {
+        pushDown(ind, left, right);
+
+        // No overlap
+        if (rightQ < left || right < leftQ)
+            return operation.identityLong();
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ)
+            return seg[ind];
+
+        // Partial overlap
+        int mid = (left + right) / 2;
+
+        long leftResult = rangeQuery(2 * ind + 1, left, mid, leftQ, rightQ);
+        long rightResult = rangeQuery(2 * ind + 2, mid + 1, right, leftQ, rightQ);
+
+        return operation.merge(leftResult, rightResult);
+    }
+
+    // User-friendly range update
+    void rangeUpdate(int leftQ, int rightQ, long value) {
+        if (leftQ < 0) leftQ = 0;
+        if (rightQ >= n) rightQ = n - 1;
+        if (leftQ > rightQ) return;
+
+        rangeUpdate(0, 0, n - 1, leftQ, rightQ, value);
+    }
+
+    // User-friendly range query
+    long rangeQuery(int leftQ, int rightQ) {
+        if (leftQ < 0) leftQ = 0;
+        if (rightQ >= n) rightQ = n - 1;
+        if (leftQ > rightQ) return operation.identityLong();
+
+        return rangeQuery(0, 0, n - 1, leftQ, rightQ);
+    }
+}
@@ -1,3 +1,6 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Manacher's Algorithm
  * Finds the longest palindromic substring in O(n) time.
@@ -120,8 +123,183 @@ public class Manacher {
         return t;
     }
 
+    /*
+     * ---------------------------------------------------------------
+     * Radius arrays on the original indices (no '#' interleaving)
+     * ---------------------------------------------------------------
+     *
+     * odd[i]  = k >= 1: s[i - k + 1 ... i + k - 1] is the longest odd palindrome centred at i
+     * even[i] = k >= 0: s[i - k ... i + k - 1] is the longest even palindrome centred
+     *           between i - 1 and i
+     *
+     * One int per byte per array (4 bytes per input byte), instead of the 2n + 3 chars
+     * plus 2n + 3 ints of the preprocessed version.
+     */
+
+    /**
+     * Longest odd palindrome radius for every centre.
+     */
+    public static int[] oddRadii(byte[] s) {
+        int[] d = new int[s.length];
+        radii(s, false, d, 0, s.length);
+        return d;
+    }
+
+    /**
+     * Longest even palindrome radius for every centre (between i - 1 and i).
+     */
+    public static int[] evenRadii(byte[] s) {
+        int[] d = new int[s.length];
+        radii(s, true, d, 0, s.length);
+        return d;
+    }
+
+    /**
+     * Same as oddRadii(s), computed in parallel chunks on the given pool.
+     */
+    public static int[] oddRadii(byte[] s, ForkJoinPool pool) {
+        return parallelRadii(s, false, pool);
+    }
+
+    /**
+     * Same as evenRadii(s), computed in parallel chunks on the given pool.
+     */
+    public static int[] evenRadii(byte[] s, ForkJoinPool pool) {
+        return parallelRadii(s, true, pool);
+    }
+
+    /**
+     * Receives one maximal palindrome: s[start ... start + length - 1].
+     */
+    public interface PalindromeListener {
+        void onPalindrome(int start, int length);
+    }
+
+    /**
+     * Reports the maximal palindrome of every centre with length >= minLength:
+     * all odd centres first, then all even ones. Only one int[] is allocated
+     * and it is reused for both passes.
+     */
+    public static void forEachMaximalPalindrome(byte[] s, int minLength, PalindromeListener listener) {
+        int n = s.length;
+        int[] d = new int[n];
+
+        radii(s, false, d, 0, n);
+        for (int i = 0; i < n; i++) {
+            int length = 2 * d[i] - 1;
+            if (length >= minLength) listener.onPalindrome(i - d[i] + 1, length);
+        }
+
+        radii(s, true, d, 0, n);
+        for (int i = 0; i < n; i++) {
+            int length = 2 * d[i];
+            if (length >= minLength && length > 0) listener.onPalindrome(i - d[i], length);
+        }
+    }
+
+    /*
+     * Manacher on s[from ... to - 1] only (expansion never leaves the range).
+     * [l, r] is the rightmost palindrome found so far; inside it a centre starts
+     * from its mirror's radius instead of from scratch.
+     */
+    static void radii(byte[] s, boolean even, int[] d, int from, int to) {
+        int l = from, r = from - 1;
+        int shift = even ? 1 : 0;   // even centres compare s[i - k - 1] with s[i + k]
+        for (int i = from; i < to; i++) {
+            int k = i > r ? 1 - shift : Math.min(d[l + r - i + shift], r - i + 1);
+            while (i - k - shift >= from && i + k < to && s[i - k - shift] == s[i + k]) k++;
+            d[i] = k;
+            if (i + k - 1 > r) {
+                l = i - k + 1 - shift;
+                r = i + k - 1;
+            }
+        }
+    }
+
+    /*
+     * Parallel chunked version.
+     *
+     * 1. Every chunk runs radii() on its own bytes (in parallel). A radius that
+     *    stopped on a mismatch is already final. One that was cut off by an
+     *    inner chunk edge is a lower bound and is stored as ~k.
+     * 2. One sequential pass over the whole text finishes the cut-off radii:
+     *    start from max(local radius, mirror radius) and keep expanding. That is
+     *    ordinary Manacher, so it stays O(n) in total, and most centres only copy.
+     */
+    static int[] parallelRadii(byte[] s, boolean even, ForkJoinPool pool) {
+        int n = s.length;
+        int[] d = new int[n];
+        pool.invoke(new ManacherChunkTask(s, even, d, 0, n));
+
+        int l = 0, r = -1;
+        int shift = even ? 1 : 0;
+        for (int i = 0; i < n; i++) {
+            int k = d[i];
+            if (k < 0) {
+                k = ~k;
+                if (i <= r) k = Math.max(k, Math.min(d[l + r - i + shift], r - i + 1));
+                while (i - k - shift >= 0 && i + k < n && s[i - k - shift] == s[i + k]) k++;
+                d[i] = k;
+            }
+            if (i + k - 1 > r) {
+                l = i - k + 1 - shift;
+                r = i + k - 1;
+            }
+        }
+        return d;
+    }
+
     public static void main(String[] args) {
         System.out.println(longestPalindrome("babad")); // Output: "bab" or "aba"
         System.out.println(longestPalindrome("cbbd"));  // Output: "bb"
     }
 }
+
+/*
+ * Runs Manacher on each chunk of s separately and marks radii that were cut off
+ * by an inner chunk edge as ~k (see Manacher.parallelRadii).
+ */
+class ManacherChunkTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    static final int SEQUENTIAL_THRESHOLD = 1 << 20;
+
+    byte[] s;
+    boolean even;
+    int[] d;
+    int from, to;
+
+    ManacherChunkTask(byte[] s, boolean even, int[] d, int from, int to) {
+        this.s = s;
+        this.even = even;
+        this.d = d;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            Manacher.radii(s, even, d, from, to);
+            markCutOff();
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+
+        invokeAll(
+                new ManacherChunkTask(s, even, d, from, mid),
+                new ManacherChunkTask(s, even, d, mid, to)
+        );
+    }
+
+    // A palindrome reaching an inner chunk edge might continue past it
+    void markCutOff() {
+        int shift = even ? 1 : 0;
+        for (int i = from; i < to; i++) {
+            int k = d[i];
+            boolean cutLeft = i - k - shift < from && from > 0;
+            boolean cutRight = i + k >= to && to < s.length;
+            if (cutLeft || cutRight) d[i] = ~k;
+        }
+    }
+}
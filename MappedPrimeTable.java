@@ -0,0 +1,205 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/*
+ * On-disk, memory-mapped prime table: the sieve is computed once and then
+ * reused by every later process.
+ *
+ * File layout:
+ *   64-byte header: magic, version, n, prime count, CRC32C of the bits,
+ *   CRC32C of header bytes 0 ... 31
+ *   bits: odd numbers only, as in SegmentedSieve (bit j = number 2j + 1, 1 = composite),
+ *   stored as little-endian longs
+ * Only n / 16 bytes are needed, so n = 10^9 is ~62 MB.
+ *
+ * load(path, n) opens the file if it is valid and covers n. Otherwise (missing,
+ * corrupt, too small) it sieves segment by segment into a temp file and moves
+ * it into place atomically, so concurrent workers never see a half-written table.
+ * Opening only maps the file, and the OS pages bits in on demand. With
+ * verifyData = false only the header checksum is checked and startup is O(1).
+ * The bits are mapped in 1 GB chunks.
+ */
+class MappedPrimeTable implements AutoCloseable {
+    static final int MAGIC = 0x5052544C;         // "PRTL"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int CHUNK_BITS = 27;            // 2^27 longs = 1 GB per chunk
+    static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    FileChannel channel;
+    MappedByteBuffer chunks[];
+    long n;
+    long primeCount;
+
+    private MappedPrimeTable(FileChannel channel, long n, long primeCount) throws IOException {
+        this.channel = channel;
+        this.n = n;
+        this.primeCount = primeCount;
+        map();
+    }
+
+    // Opens the table at path if it is valid and covers n, else (re)builds it first
+    static MappedPrimeTable load(Path path, long n) throws IOException {
+        return load(path, n, true);
+    }
+
+    static MappedPrimeTable load(Path path, long n, boolean verifyData) throws IOException {
+        if (Files.exists(path)) {
+            try {
+                MappedPrimeTable table = open(path, verifyData);
+                if (table.n >= n) return table;
+                table.close();
+            } catch (IOException | RuntimeException e) {
+                // corrupt, truncated or an older format: rebuild below
+            }
+        }
+        build(path, n);
+        return open(path, false);
+    }
+
+    /*
+     * Opens an existing table. The header checksum is always checked; the
+     * checksum of the bits (one pass over the file) only if verifyData.
+     * Any problem with the file surfaces as IOException, so load() can rebuild it.
+     */
+    static MappedPrimeTable open(Path path, boolean verifyData) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) { }
+
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION
+                    || header.getLong(32) != checksum(header, 0, 32)) {
+                throw new IOException("Not a prime table file: " + path);
+            }
+            long n = header.getLong(8);
+            long primeCount = header.getLong(16);
+            long dataChecksum = header.getLong(24);
+
+            if (n < 0 || channel.size() != HEADER_BYTES + 8 * words(n)) {
+                throw new IOException("Truncated prime table file: " + path);
+            }
+
+            MappedPrimeTable table = new MappedPrimeTable(channel, n, primeCount);
+            if (verifyData && table.dataChecksum() != dataChecksum) {
+                throw new IOException("Prime table checksum mismatch: " + path);
+            }
+            return table;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        } catch (RuntimeException e) {
+            // e.g. a header whose size passes the checks but cannot be mapped
+            channel.close();
+            throw new IOException("Bad prime table file: " + path, e);
+        }
+    }
+
+    // Sieves [1, n] into a new file at path (written next to it, then renamed)
+    static void build(Path path, long n) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long odds = oddCount(n);
+                int basePrimes[] = SegmentedSieve.basePrimes(Math.max(n, 2));
+                long bits[] = new long[SegmentedSieve.SEGMENT_WORDS];
+                ByteBuffer buffer = ByteBuffer.allocateDirect(8 * SegmentedSieve.SEGMENT_WORDS).order(ByteOrder.LITTLE_ENDIAN);
+                CRC32C crc = new CRC32C();
+                long primeCount = n >= 2 ? 1 : 0;   // 2
+                long position = HEADER_BYTES;
+
+                // segments start at multiples of 64 bits, so each one is whole words of the file
+                for (long offset = 0; offset < odds; offset += SegmentedSieve.SEGMENT_BITS) {
+                    int bitCount = (int) Math.min(SegmentedSieve.SEGMENT_BITS, odds - offset);
+                    SegmentedSieve.sieveSegment(1 + 2 * offset, bitCount, bits, basePrimes);
+                    primeCount += SegmentedSieve.countPrimes(bits, bitCount);
+
+                    int wordCount = (bitCount + 63) >>> 6;
+                    if ((bitCount & 63) != 0) bits[wordCount - 1] |= -1L << bitCount;   // padding = composite
+
+                    buffer.clear();
+                    buffer.asLongBuffer().put(bits, 0, wordCount);
+                    buffer.limit(8 * wordCount);
+                    crc.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) position += out.write(buffer, position);
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(0, MAGIC);
+                header.putInt(4, FORMAT_VERSION);
+                header.putLong(8, n);
+                header.putLong(16, primeCount);
+                header.putLong(24, crc.getValue());
+                header.putLong(32, checksum(header, 0, 32));
+                while (header.hasRemaining()) out.write(header, header.position());
+                out.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static long oddCount(long n) {
+        return (n + 1) >>> 1;      // 1, 3, ..., n or n - 1
+    }
+
+    static long words(long n) {
+        return (oddCount(n) + 63) >>> 6;
+    }
+
+    static long checksum(ByteBuffer buffer, int from, int to) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(from).limit(to));
+        return crc.getValue();
+    }
+
+    void map() throws IOException {
+        long words = words(n);
+        int chunkCount = (int) ((words + CHUNK_MASK) >>> CHUNK_BITS);
+        chunks = new MappedByteBuffer[chunkCount];
+
+        for (int c = 0; c < chunkCount; c++) {
+            long first = (long) c << CHUNK_BITS;
+            long count = Math.min(1L << CHUNK_BITS, words - first);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + 8 * first, 8 * count);
+            chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    // CRC32C of all the bits (reads the whole file)
+    long dataChecksum() {
+        CRC32C crc = new CRC32C();
+        for (MappedByteBuffer chunk : chunks) crc.update(chunk.duplicate());
+        return crc.getValue();
+    }
+
+    // 0 <= x <= n
+    boolean isPrime(long x) {
+        if (x < 0 || x > n) throw new IllegalArgumentException("Outside the table: " + x);
+        if ((x & 1) == 0) return x == 2;
+        long j = x >>> 1, word = j >>> 6;
+        long bits = chunks[(int) (word >>> CHUNK_BITS)].getLong((int) (word & CHUNK_MASK) << 3);
+        return (bits & (1L << j)) == 0;
+    }
+
+    // Number of primes <= n
+    long primeCount() {
+        return primeCount;
+    }
+
+    // Mapped pages stay valid after the channel is closed
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Off-heap, file-backed segment tree (same Operation enum as SegmentTree).
+ *
+ * Uses the iterative layout (leaves at n...2n-1, node i = merge(2i, 2i+1))
+ * stored as ints in a memory-mapped file, so:
+ *   - the tree is not limited by heap size (n can be up to ~2^40),
+ *   - reopening an existing file does not rebuild anything,
+ *   - the OS pages nodes in on demand and keeps hot ones in the page cache.
+ *
+ * File layout: 64-byte header (magic, version, n, operation code, dirty flag) followed by 2n ints.
+ * The dirty flag is set before the first write and cleared by force() once the
+ * nodes are on disk. A file still marked dirty (crash in the middle of an update)
+ * gets its internal nodes rebuilt from the leaves on open().
+ * A single MappedByteBuffer is limited to 2 GB, so the nodes are mapped in
+ * 1 GB chunks.
+ */
+class MappedSegmentTree implements AutoCloseable {
+    static final int MAGIC = 0x53475452;        // "SGTR"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int CHUNK_BITS = 28;            // 2^28 ints = 1 GB per chunk
+    static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    FileChannel channel;
+    MappedByteBuffer header;
+    MappedByteBuffer chunks[];
+    Operation operation;
+    long n;
+    boolean dirty;
+
+    private MappedSegmentTree(FileChannel channel, long n, Operation operation) throws IOException {
+        this.channel = channel;
+        this.n = n;
+        this.operation = operation;
+        map();
+    }
+
+    // Creates a new file for n elements, every element starting at the operation identity
+    static MappedSegmentTree create(Path path, long n, Operation operation) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedSegmentTree st = new MappedSegmentTree(channel, n, operation);
+        st.dirty = true;   // clean only after the first force()
+        st.writeHeader();
+
+        // identity merged with identity is identity, so every node starts as identity
+        int identity = operation.identity();
+        if (identity != 0) {
+            for (long i = 1; i < 2 * n; i++) st.set(i, identity);
+        }
+        return st;
+    }
+
+    // Creates a new file and builds it from arr[]
+    static MappedSegmentTree create(Path path, int arr[], Operation operation) throws IOException {
+        MappedSegmentTree st = create(path, arr.length, operation);
+        st.build(arr);
+        return st;
+    }
+
+    /*
+     * Opens an existing file; nodes are paged in lazily. The header is read and checked
+     * before anything is mapped, so a foreign file is never modified. If the file was
+     * not closed cleanly, the internal nodes are rebuilt from the leaves.
+     */
+    static MappedSegmentTree open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Not a segment tree file: " + path);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) { }
+
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not a segment tree file: " + path);
+            }
+            long n = header.getLong(8);
+            int code = header.getInt(16);
+            Operation operation = operationForCode(code);
+            if (operation == null) {
+                throw new IOException("Unknown operation " + code + " in segment tree file: " + path);
+            }
+            if (n < 0 || n > (channel.size() - HEADER_BYTES) / 8) {
+                throw new IOException("Truncated segment tree file: " + path);
+            }
+
+            MappedSegmentTree st = new MappedSegmentTree(channel, n, operation);
+            if (header.getInt(20) != 0) {
+                // interrupted update: leaves are single int writes, so trust them and redo the rest
+                st.markDirty();
+                st.rebuildInternal();
+                st.force();
+            }
+            return st;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    void map() throws IOException {
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+
+        long nodes = 2 * n;
+        int chunkCount = (int) ((nodes + CHUNK_MASK) >>> CHUNK_BITS);
+        chunks = new MappedByteBuffer[chunkCount];
+
+        for (int c = 0; c < chunkCount; c++) {
+            long first = (long) c << CHUNK_BITS;
+            long count = Math.min(1L << CHUNK_BITS, nodes - first);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + 4 * first, 4 * count);
+            chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    void writeHeader() {
+        header.putInt(0, MAGIC);
+        header.putInt(4, FORMAT_VERSION);
+        header.putLong(8, n);
+        header.putInt(16, codeOf(operation));
+        header.putInt(20, dirty ? 1 : 0);
+    }
+
+    /*
+     * Fixed on-disk codes, independent of the enum's declaration order (ordinals
+     * change when constants are added or reordered). The values match the ordinals
+     * written by earlier files, so those still open.
+     */
+    static int codeOf(Operation operation) {
+        switch (operation) {
+            case MIN: return 0;
+            case MAX: return 1;
+            case SUM: return 2;
+            default: throw new IllegalArgumentException("No file code for " + operation);
+        }
+    }
+
+    static Operation operationForCode(int code) {
+        switch (code) {
+            case 0: return Operation.MIN;
+            case 1: return Operation.MAX;
+            case 2: return Operation.SUM;
+            default: return null;
+        }
+    }
+
+    // Flags the file on disk before the first node write after a force()
+    void markDirty() {
+        if (dirty) return;
+        dirty = true;
+        header.putInt(20, 1);
+        header.force();
+    }
+
+    int get(long i) {
+        return chunks[(int) (i >>> CHUNK_BITS)].getInt((int) (i & CHUNK_MASK) << 2);
+    }
+
+    // Callers must markDirty() before a batch of writes
+    void set(long i, int value) {
+        chunks[(int) (i >>> CHUNK_BITS)].putInt((int) (i & CHUNK_MASK) << 2, value);
+    }
+
+    void build(int arr[]) {
+        markDirty();
+        for (int i = 0; i < arr.length; i++) set(n + i, arr[i]);
+        rebuildInternal();
+    }
+
+    void rebuildInternal() {
+        for (long i = n - 1; i > 0; i--) {
+            set(i, operation.merge(get(2 * i), get(2 * i + 1)));
+        }
+    }
+
+    // Inclusive range [leftQ...rightQ]
+    int query(long leftQ, long rightQ) {
+        int resLeft = operation.identity();
+        int resRight = operation.identity();
+
+        long l = leftQ + n, r = rightQ + n + 1;
+        while (l < r) {
+            if ((l & 1) == 1) resLeft = operation.merge(resLeft, get(l++));
+            if ((r & 1) == 1) resRight = operation.merge(get(--r), resRight);
+            l >>= 1;
+            r >>= 1;
+        }
+        return operation.merge(resLeft, resRight);
+    }
+
+    void pointUpdate(long indQ, int value) {
+        markDirty();
+        long i = indQ + n;
+        set(i, value);
+
+        for (i >>= 1; i > 0; i >>= 1) {
+            set(i, operation.merge(get(2 * i), get(2 * i + 1)));
+        }
+    }
+
+    // Flushes dirty pages to disk, then marks the file clean
+    void force() {
+        for (MappedByteBuffer chunk : chunks) chunk.force();
+        if (dirty) {
+            dirty = false;
+            header.putInt(20, 0);
+        }
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Shared operation surface for every segment tree in this repo.
+ *
+ * Each constant has int, long and double overloads so the primitive trees
+ * (SegmentTree, LongSegmentTree, DoubleSegmentTree and their lazy versions)
+ * call straight into primitive code with no boxing.
+ */
+enum Operation {
+    MIN {
+        @Override
+        int merge(int a, int b) {
+            return Math.min(a, b);
+        }
+
+        @Override
+        long merge(long a, long b) {
+            return Math.min(a, b);
+        }
+
+        @Override
+        double merge(double a, double b) {
+            return Math.min(a, b);
+        }
+
+        @Override
+        int identity() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        long identityLong() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        double identityDouble() {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        int applyLazy(int value, int lazy, int length) {
+            return value + lazy;
+        }
+
+        @Override
+        long applyLazy(long value, long lazy, long length) {
+            return value + lazy;
+        }
+
+        @Override
+        double applyLazy(double value, double lazy, long length) {
+            return value + lazy;
+        }
+    },
+    MAX {
+        @Override
+        int merge(int a, int b) {
+            return Math.max(a, b);
+        }
+
+        @Override
+        long merge(long a, long b) {
+            return Math.max(a, b);
+        }
+
+        @Override
+        double merge(double a, double b) {
+            return Math.max(a, b);
+        }
+
+        @Override
+        int identity() {
+            return Integer.MIN_VALUE;
+        }
+
+        @Override
+        long identityLong() {
+            return Long.MIN_VALUE;
+        }
+
+        @Override
+        double identityDouble() {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        @Override
+        int applyLazy(int value, int lazy, int length) {
+            return value + lazy;
+        }
+
+        @Override
+        long applyLazy(long value, long lazy, long length) {
+            return value + lazy;
+        }
+
+        @Override
+        double applyLazy(double value, double lazy, long length) {
+            return value + lazy;
+        }
+    },
+    SUM {
+        @Override
+        int merge(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        long merge(long a, long b) {
+            return a + b;
+        }
+
+        @Override
+        double merge(double a, double b) {
+            return a + b;
+        }
+
+        @Override
+        int identity() {
+            return 0;
+        }
+
+        @Override
+        long identityLong() {
+            return 0L;
+        }
+
+        @Override
+        double identityDouble() {
+            return 0.0;
+        }
+
+        @Override
+        int applyLazy(int value, int lazy, int length) {
+            return value + lazy * length;
+        }
+
+        @Override
+        long applyLazy(long value, long lazy, long length) {
+            return value + lazy * length;
+        }
+
+        @Override
+        double applyLazy(double value, double lazy, long length) {
+            return value + lazy * length;
+        }
+    };
+
+    abstract int merge(int a, int b);
+    abstract long merge(long a, long b);
+    abstract double merge(double a, double b);
+
+    abstract int identity();
+    abstract long identityLong();
+    abstract double identityDouble();
+
+    // Applies an additive lazy tag to a node covering `length` elements
+    abstract int applyLazy(int value, int lazy, int length);
+    abstract long applyLazy(long value, long lazy, long length);
+    abstract double applyLazy(double value, double lazy, long length);
+}
@@ -0,0 +1,173 @@
+import java.util.Arrays;
+
+// Operation (MIN / MAX / SUM) is the shared enum in Operation.java
+
+/*
+ * Persistent (versioned) segment tree with path copying.
+ *
+ * pointUpdate never changes an existing node: it copies the O(log n) nodes on
+ * the root-to-leaf path and shares every other node with the previous version.
+ * Each version is just a root index, so a snapshot costs O(log n) memory
+ * instead of a full copy of seg[].
+ *
+ * Nodes are not objects: they live in three parallel int arrays (value, left
+ * child, right child) that grow like an ArrayList. Versions that are no longer
+ * needed can be released, and collectGarbage() compacts the pool.
+ */
+class PersistentSegmentTree {
+    int value[], leftChild[], rightChild[];
+    int nodeCount;
+
+    // roots[v] = root node of version v, or -1 once released
+    int roots[];
+    int versionCount;
+
+    Operation operation;
+    int n;
+
+    // Constructor directly takes arr[]; the initial array is version 0
+    PersistentSegmentTree(int arr[], Operation operation) {
+        this.n = arr.length;
+        this.operation = operation;
+
+        int capacity = 2 * n;
+        value = new int[capacity];
+        leftChild = new int[capacity];
+        rightChild = new int[capacity];
+        roots = new int[16];
+
+        addVersion(build(0, n - 1, arr));
+    }
+
+    int newNode(int nodeValue, int left, int right) {
+        if (nodeCount == value.length) {
+            int capacity = Math.max(16, value.length + (value.length >> 1));
+            value = Arrays.copyOf(value, capacity);
+            leftChild = Arrays.copyOf(leftChild, capacity);
+            rightChild = Arrays.copyOf(rightChild, capacity);
+        }
+        value[nodeCount] = nodeValue;
+        leftChild[nodeCount] = left;
+        rightChild[nodeCount] = right;
+        return nodeCount++;
+    }
+
+    int addVersion(int root) {
+        if (versionCount == roots.length) roots = Arrays.copyOf(roots, 2 * roots.length);
+        roots[versionCount] = root;
+        return versionCount++;
+    }
+
+    int build(int left, int right, int arr[]) {
+        if (left == right) return newNode(arr[left], -1, -1);
+
+        int mid = (left + right) / 2;
+
+        int l = build(left, mid, arr);
+        int r = build(mid + 1, right, arr);
+
+        return newNode(operation.merge(value[l], value[r]), l, r);
+    }
+
+    int query(int node, int left, int right, int leftQ, int rightQ) {
+        // No overlap
+        if (leftQ > right || rightQ < left)
+            return operation.identity();
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ)
+            return value[node];
+
+        // Partial overlap
+        int mid = (left + right) / 2;
+
+        int leftResult = query(leftChild[node], left, mid, leftQ, rightQ);
+        int rightResult = query(rightChild[node], mid + 1, right, leftQ, rightQ);
+
+        return operation.merge(leftResult, rightResult);
+    }
+
+    // Returns the new copy of `node` with indQ set to value
+    int pointUpdate(int node, int left, int right, int indQ, int newValue) {
+        if (left == right) return newNode(newValue, -1, -1);
+
+        int mid = (left + right) / 2;
+
+        int l = leftChild[node], r = rightChild[node];
+        if (indQ <= mid)
+            l = pointUpdate(l, left, mid, indQ, newValue);
+        else
+            r = pointUpdate(r, mid + 1, right, indQ, newValue);
+
+        return newNode(operation.merge(value[l], value[r]), l, r);
+    }
+
+    int root(int version) {
+        if (version < 0 || version >= versionCount || roots[version] == -1)
+            throw new IllegalArgumentException("Unknown or released version: " + version);
+        return roots[version];
+    }
+
+    // User-friendly query on a given version
+    int query(int version, int leftQ, int rightQ) {
+        return query(root(version), 0, n - 1, leftQ, rightQ);
+    }
+
+    // Creates a new version = `version` with arr[indQ] = value, and returns its number
+    int pointUpdate(int version, int indQ, int newValue) {
+        return addVersion(pointUpdate(root(version), 0, n - 1, indQ, newValue));
+    }
+
+    int latestVersion() {
+        return versionCount - 1;
+    }
+
+    // Marks a version as no longer needed; its nodes are reclaimed by collectGarbage()
+    void release(int version) {
+        root(version);
+        roots[version] = -1;
+    }
+
+    // Releases every version older than `version`
+    void releaseBefore(int version) {
+        for (int v = 0; v < version && v < versionCount; v++) roots[v] = -1;
+    }
+
+    /*
+     * Mark-and-compact over the node pool.
+     *
+     * Children are always created before their parent, so a child's index is
+     * smaller than its parent's. One pass in index order can therefore move
+     * every live node down and rewrite its children with already-known new indices.
+     */
+    void collectGarbage() {
+        boolean live[] = new boolean[nodeCount];
+        for (int v = 0; v < versionCount; v++) {
+            if (roots[v] != -1) mark(roots[v], live);
+        }
+
+        int remap[] = new int[nodeCount];
+        int next = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (!live[node]) continue;
+
+            value[next] = value[node];
+            leftChild[next] = leftChild[node] == -1 ? -1 : remap[leftChild[node]];
+            rightChild[next] = rightChild[node] == -1 ? -1 : remap[rightChild[node]];
+            remap[node] = next++;
+        }
+        nodeCount = next;
+
+        for (int v = 0; v < versionCount; v++) {
+            if (roots[v] != -1) roots[v] = remap[roots[v]];
+        }
+    }
+
+    void mark(int node, boolean live[]) {
+        // shared subtrees are marked once
+        if (node == -1 || live[node]) return;
+        live[node] = true;
+        mark(leftChild[node], live);
+        mark(rightChild[node], live);
+    }
+}
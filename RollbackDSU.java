@@ -0,0 +1,214 @@
+import java.util.Arrays;
+
+/*
+ * DSU with undo, for offline dynamic connectivity.
+ *
+ * Path compression rewrites many parents per find, which cannot be undone
+ * cheaply. Here there is no compression, only union by size (so trees stay
+ * O(log n) deep), and every successful union pushes the root it attached
+ * onto a primitive undo stack. rollback(snapshot) pops unions until the stack
+ * is back to the size returned by snapshot().
+ */
+class RollbackDSU {
+    int[] parent, size;
+    int components;
+
+    // undo stack: roots that were attached below another root
+    int[] history;
+    int top;
+
+    RollbackDSU(int n) {
+        parent = new int[n + 1];
+        size = new int[n + 1];
+        history = new int[n + 1];
+        Arrays.fill(size, 1);
+        for (int i = 0; i <= n; i++) {
+            parent[i] = i;
+        }
+        components = n + 1;
+    }
+
+    // No path compression, so it can be undone; union by size keeps it O(log n)
+    int findParent(int x) {
+        while (parent[x] != x) x = parent[x];
+        return x;
+    }
+
+    boolean union(int x, int y) {
+        int px = findParent(x);
+        int py = findParent(y);
+        if (px == py) return false;
+
+        // attach the smaller tree (py) below the larger one (px)
+        if (size[px] < size[py]) {
+            int temp = px;
+            px = py;
+            py = temp;
+        }
+        parent[py] = px;
+        size[px] += size[py];
+        components--;
+
+        history[top++] = py;
+        return true;
+    }
+
+    boolean isConnected(int x, int y) {
+        return findParent(x) == findParent(y);
+    }
+
+    int snapshot() {
+        return top;
+    }
+
+    // Undoes every union made after the given snapshot, newest first
+    void rollback(int snapshot) {
+        while (top > snapshot) {
+            int child = history[--top];
+            int root = parent[child];
+            size[root] -= size[child];
+            parent[child] = child;
+            components++;
+        }
+    }
+}
+
+/*
+ * Offline dynamic connectivity (segment tree over time).
+ *
+ * queries[i] = {type, u, v} with type ADD, REMOVE or QUERY.
+ * Every edge is alive for an interval of query indices. That interval is put on
+ * O(log q) nodes of a segment tree over [0, q - 1]. A DFS over the tree unions
+ * a node's edges on entry and rolls them back on exit, so at leaf i the DSU
+ * holds exactly the edges alive at time i.
+ *
+ * Total time O(q log q log n). Adding an edge that is already present, or
+ * removing one that is not, is ignored.
+ */
+class OfflineDynamicConnectivity {
+    static final int ADD = 0, REMOVE = 1, QUERY = 2;
+
+    int q;
+    int queries[][];
+
+    // edges stored on segment tree nodes as linked lists in flat arrays
+    int nodeHead[];
+    int next[], edgeU[], edgeV[];
+    int edgeCount;
+
+    RollbackDSU dsu;
+    int answers[];
+
+    // Returns answers[i] = 1 / 0 (connected or not) for QUERY entries, -1 for the rest
+    static int[] solve(int n, int[][] queries) {
+        return new OfflineDynamicConnectivity(n, queries).answers;
+    }
+
+    OfflineDynamicConnectivity(int n, int[][] queries) {
+        this.q = queries.length;
+        this.queries = queries;
+        answers = new int[q];
+        Arrays.fill(answers, -1);
+        if (q == 0) return;
+
+        nodeHead = new int[4 * q];
+        Arrays.fill(nodeHead, -1);
+        int capacity = 16;
+        next = new int[capacity];
+        edgeU = new int[capacity];
+        edgeV = new int[capacity];
+
+        placeEdges();
+
+        dsu = new RollbackDSU(n);
+        dfs(0, 0, q - 1);
+    }
+
+    static long key(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+
+    // Matches every ADD with its REMOVE and stores the alive interval in the tree
+    void placeEdges() {
+        // compress edge keys to ids 0 ... distinct - 1 (primitive sort + binary search, no map)
+        long keys[] = new long[q];
+        int m = 0;
+        for (int query[] : queries) {
+            if (query[0] != QUERY) keys[m++] = key(query[1], query[2]);
+        }
+        Arrays.sort(keys, 0, m);
+        int distinct = 0;
+        for (int i = 0; i < m; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) keys[distinct++] = keys[i];
+        }
+
+        // openedAt[id] = time the edge was added, or -1 while it is absent
+        int openedAt[] = new int[distinct];
+        Arrays.fill(openedAt, -1);
+
+        for (int t = 0; t < q; t++) {
+            int type = queries[t][0];
+            if (type == QUERY) continue;
+
+            int id = Arrays.binarySearch(keys, 0, distinct, key(queries[t][1], queries[t][2]));
+            if (type == ADD && openedAt[id] == -1) {
+                openedAt[id] = t;
+            } else if (type == REMOVE && openedAt[id] != -1) {
+                if (openedAt[id] <= t - 1) {
+                    insert(0, 0, q - 1, openedAt[id], t - 1, queries[openedAt[id]][1], queries[openedAt[id]][2]);
+                }
+                openedAt[id] = -1;
+            }
+        }
+
+        // edges never removed stay alive until the end
+        for (int id = 0; id < distinct; id++) {
+            int t = openedAt[id];
+            if (t != -1) insert(0, 0, q - 1, t, q - 1, queries[t][1], queries[t][2]);
+        }
+    }
+
+    void insert(int ind, int left, int right, int leftQ, int rightQ, int u, int v) {
+        // No overlap
+        if (rightQ < left || right < leftQ) return;
+
+        // Complete overlap: the edge is alive for this whole node
+        if (leftQ <= left && right <= rightQ) {
+            if (edgeCount == next.length) {
+                int capacity = 2 * next.length;
+                next = Arrays.copyOf(next, capacity);
+                edgeU = Arrays.copyOf(edgeU, capacity);
+                edgeV = Arrays.copyOf(edgeV, capacity);
+            }
+            edgeU[edgeCount] = u;
+            edgeV[edgeCount] = v;
+            next[edgeCount] = nodeHead[ind];
+            nodeHead[ind] = edgeCount++;
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        insert(2 * ind + 1, left, mid, leftQ, rightQ, u, v);
+        insert(2 * ind + 2, mid + 1, right, leftQ, rightQ, u, v);
+    }
+
+    void dfs(int ind, int left, int right) {
+        int snapshot = dsu.snapshot();
+        for (int e = nodeHead[ind]; e != -1; e = next[e]) {
+            dsu.union(edgeU[e], edgeV[e]);
+        }
+
+        if (left == right) {
+            if (queries[left][0] == QUERY) {
+                answers[left] = dsu.isConnected(queries[left][1], queries[left][2]) ? 1 : 0;
+            }
+        } else {
+            int mid = (left + right) / 2;
+            dfs(2 * ind + 1, left, mid);
+            dfs(2 * ind + 2, mid + 1, right);
+        }
+
+        dsu.rollback(snapshot);
+    }
+}
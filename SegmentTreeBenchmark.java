@@ -0,0 +1,240 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Rough timing harness for the segment tree engines.
+ *
+ * Run with: java SegmentTreeBenchmark [n] [ops] [maxThreads]
+ * Each engine gets the same random array and the same random query / update stream,
+ * and a warm-up round is run first so the JIT has compiled the hot loops.
+ */
+public class SegmentTreeBenchmark {
+
+    static int[] randomArray(int n, long seed) {
+        Random random = new Random(seed);
+        int arr[] = new int[n];
+        for (int i = 0; i < n; i++) arr[i] = random.nextInt(1000);
+        return arr;
+    }
+
+    // ops[3 * k] = type (0 query, 1 update), ops[3 * k + 1], ops[3 * k + 2] = arguments
+    static int[] randomOps(int n, int count, long seed) {
+        Random random = new Random(seed);
+        int ops[] = new int[3 * count];
+        for (int k = 0; k < count; k++) {
+            boolean update = random.nextInt(4) == 0;
+            int a = random.nextInt(n), b = random.nextInt(n);
+            ops[3 * k] = update ? 1 : 0;
+            ops[3 * k + 1] = update ? a : Math.min(a, b);
+            ops[3 * k + 2] = update ? random.nextInt(1000) : Math.max(a, b);
+        }
+        return ops;
+    }
+
+    static long runRecursive(int arr[], int ops[], Operation operation) {
+        SegmentTree st = new SegmentTree(arr, operation);
+        long checksum = 0;
+        for (int k = 0; k < ops.length; k += 3) {
+            if (ops[k] == 0) checksum += st.query(ops[k + 1], ops[k + 2]);
+            else st.pointUpdate(ops[k + 1], ops[k + 2]);
+        }
+        return checksum;
+    }
+
+    static long runIterative(int arr[], int ops[], Operation operation) {
+        IterativeSegmentTree st = new IterativeSegmentTree(arr, operation);
+        long checksum = 0;
+        for (int k = 0; k < ops.length; k += 3) {
+            if (ops[k] == 0) checksum += st.query(ops[k + 1], ops[k + 2]);
+            else st.pointUpdate(ops[k + 1], ops[k + 2]);
+        }
+        return checksum;
+    }
+
+    static long runSingleQueries(SegmentTree st, int lefts[], int rights[]) {
+        long checksum = 0;
+        for (int i = 0; i < lefts.length; i++) checksum += st.query(lefts[i], rights[i]);
+        return checksum;
+    }
+
+    static long runBatchQueries(SegmentTree st, int lefts[], int rights[], int out[]) {
+        st.queryAll(lefts, rights, out);
+        long checksum = 0;
+        for (int value : out) checksum += value;
+        return checksum;
+    }
+
+    static void lazyBatch(int arr[], int lefts[], int rights[], int values[], int out[]) {
+        int count = lefts.length;
+        for (int round = 0; round < 2; round++) {   // first round is warm-up
+            SegmentTreeLazy single = new SegmentTreeLazy(arr, Operation.SUM);
+            SegmentTreeLazy batch = new SegmentTreeLazy(arr, Operation.SUM);
+
+            long start = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < count; i++) checksum += single.rangeQuery(lefts[i], rights[i]);
+            if (round == 1) report("lazy single query SUM", start, count, checksum);
+
+            start = System.nanoTime();
+            batch.queryAll(lefts, rights, out);
+            checksum = 0;
+            for (int value : out) checksum += value;
+            if (round == 1) report("lazy queryAll SUM", start, count, checksum);
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) single.rangeUpdate(lefts[i], rights[i], values[i]);
+            if (round == 1) report("lazy single update SUM", start, count, single.rangeQuery(0, arr.length - 1));
+
+            start = System.nanoTime();
+            batch.updateAll(lefts, rights, values);
+            if (round == 1) report("lazy updateAll SUM", start, count, batch.rangeQuery(0, arr.length - 1));
+        }
+    }
+
+    interface RangeReader {
+        int read(int leftQ, int rightQ);
+    }
+
+    interface PointWriter {
+        void write(int indQ, int value);
+    }
+
+    /*
+     * One writer thread updates continuously while `readers` threads query for `millis` ms.
+     * Returns total completed queries.
+     */
+    static long runReaders(int n, int readers, long millis, RangeReader reader, PointWriter writer)
+            throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder reads = new LongAdder();
+
+        Thread writerThread = new Thread(() -> {
+            Random random = new Random(7);
+            while (!stop.get()) writer.write(random.nextInt(n), random.nextInt(1000));
+        });
+
+        Thread readerThreads[] = new Thread[readers];
+        for (int t = 0; t < readers; t++) {
+            long seed = 100 + t;
+            readerThreads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                long done = 0, sink = 0;
+                while (!stop.get()) {
+                    int a = random.nextInt(n), b = random.nextInt(n);
+                    sink += reader.read(Math.min(a, b), Math.max(a, b));
+                    done++;
+                }
+                reads.add(done + (sink == 42 ? 1 : 0));
+            });
+        }
+
+        writerThread.start();
+        for (Thread thread : readerThreads) thread.start();
+        Thread.sleep(millis);
+        stop.set(true);
+        writerThread.join();
+        for (Thread thread : readerThreads) thread.join();
+        return reads.sum();
+    }
+
+    // Reader scaling: global lock around SegmentTree vs ConcurrentSegmentTree
+    static void concurrentScaling(int arr[], int maxThreads) throws InterruptedException {
+        int n = arr.length;
+        long millis = 500;
+
+        SegmentTree locked = new SegmentTree(arr, Operation.SUM);
+        Object lock = new Object();
+        ConcurrentSegmentTree concurrent = new ConcurrentSegmentTree(arr, Operation.SUM);
+
+        for (int readers = 1; readers <= maxThreads; readers *= 2) {
+            long lockedReads = runReaders(n, readers, millis,
+                    (l, r) -> { synchronized (lock) { return locked.query(l, r); } },
+                    (i, v) -> { synchronized (lock) { locked.pointUpdate(i, v); } });
+            long weakReads = runReaders(n, readers, millis, concurrent::query, concurrent::pointUpdate);
+            long consistentReads = runReaders(n, readers, millis, concurrent::consistentQuery, concurrent::pointUpdate);
+
+            System.out.printf("readers=%-3d locked %12.0f q/s  lock-free %12.0f q/s  consistent %12.0f q/s%n",
+                    readers,
+                    lockedReads * 1000.0 / millis,
+                    weakReads * 1000.0 / millis,
+                    consistentReads * 1000.0 / millis);
+        }
+    }
+
+    // Build time of SegmentTree with 1, 2, 4 ... maxThreads fork/join workers
+    static void buildScaling(int arr[], int maxThreads) {
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+
+            // warm-up
+            new SegmentTree(arr, Operation.SUM, pool);
+
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                new SegmentTree(arr, Operation.SUM, pool);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            pool.shutdown();
+
+            System.out.printf("build threads=%-3d %8.1f ms%n", threads, best / 1e6);
+        }
+    }
+
+    static void report(String name, long startNanos, int ops, long checksum) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-24s %8.3f s  %12.0f ops/s  checksum=%d%n",
+                name, seconds, ops / seconds, checksum);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        int arr[] = randomArray(n, 1);
+        int ops[] = randomOps(n, count, 2);
+
+        for (Operation operation : Operation.values()) {
+            // warm-up
+            runRecursive(arr, ops, operation);
+            runIterative(arr, ops, operation);
+
+            long start = System.nanoTime();
+            long checksum = runRecursive(arr, ops, operation);
+            report("recursive " + operation, start, count, checksum);
+
+            start = System.nanoTime();
+            checksum = runIterative(arr, ops, operation);
+            report("iterative " + operation, start, count, checksum);
+        }
+
+        // batch vs one-at-a-time queries on the recursive tree
+        int lefts[] = new int[count], rights[] = new int[count], out[] = new int[count];
+        for (int k = 0; k < count; k++) {
+            lefts[k] = Math.min(ops[3 * k + 1], ops[3 * k + 2]);
+            rights[k] = Math.max(ops[3 * k + 1], ops[3 * k + 2]);
+        }
+        SegmentTree st = new SegmentTree(arr, Operation.SUM);
+        runSingleQueries(st, lefts, rights);
+        runBatchQueries(st, lefts, rights, out);
+
+        long start = System.nanoTime();
+        long checksum = runSingleQueries(st, lefts, rights);
+        report("single query SUM", start, count, checksum);
+
+        start = System.nanoTime();
+        checksum = runBatchQueries(st, lefts, rights, out);
+        report("queryAll SUM", start, count, checksum);
+
+        // same for the lazy tree, queries and range additions
+        int values[] = new int[count];
+        for (int k = 0; k < count; k++) values[k] = ops[3 * k + 1] % 7 - 3;
+        lazyBatch(arr, lefts, rights, values, out);
+
+        buildScaling(arr, maxThreads);
+        concurrentScaling(arr, maxThreads);
+    }
+}
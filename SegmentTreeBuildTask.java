@@ -0,0 +1,57 @@
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Parallel build for the 4n layout used by SegmentTree and SegmentTreeLazy.
+ *
+ * The two halves of a node are independent, so they are built as two forked tasks
+ * and merged after both finish. Below SEQUENTIAL_THRESHOLD leaves the task
+ * builds its subtree sequentially, since forking tiny tasks costs more than it saves.
+ */
+class SegmentTreeBuildTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+    int seg[], arr[];
+    Operation operation;
+    int ind, left, right;
+
+    SegmentTreeBuildTask(int seg[], int arr[], Operation operation, int ind, int left, int right) {
+        this.seg = seg;
+        this.arr = arr;
+        this.operation = operation;
+        this.ind = ind;
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    protected void compute() {
+        if (right - left + 1 <= SEQUENTIAL_THRESHOLD) {
+            build(ind, left, right);
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        invokeAll(
+                new SegmentTreeBuildTask(seg, arr, operation, 2 * ind + 1, left, mid),
+                new SegmentTreeBuildTask(seg, arr, operation, 2 * ind + 2, mid + 1, right)
+        );
+
+        seg[ind] = operation.merge(seg[2 * ind + 1], seg[2 * ind + 2]);
+    }
+
+    void build(int ind, int left, int right) {
+        if (left == right) {
+            seg[ind] = arr[left];
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        build(2 * ind + 1, left, mid);
+        build(2 * ind + 2, mid + 1, right);
+
+        seg[ind] = operation.merge(seg[2 * ind + 1], seg[2 * ind + 2]);
+    }
+}
@@ -1,57 +1,7 @@
-enum Operation {
-    SUM {
-        @Override
-        int merge(int a, int b) {
-            return a + b;
-        }
-
-        @Override
-        int identity() {
-            return 0;
-        }
-
-        @Override
-        int applyLazy(int value, int lazy, int length) {
-            return value + lazy * length;
-        }
-    },
-    MIN {
-        @Override
-        int merge(int a, int b) {
-            return Math.min(a, b);
-        }
-
-        @Override
-        int identity() {
-            return Integer.MAX_VALUE;
-        }
-
-        @Override
-        int applyLazy(int value, int lazy, int length) {
-            return value + lazy;
-        }
-    },
-    MAX {
-        @Override
-        int merge(int a, int b) {
-            return Math.max(a, b);
-        }
-
-        @Override
-        int identity() {
-            return Integer.MIN_VALUE;
-        }
-
-        @Override
-        int applyLazy(int value, int lazy, int length) {
-            return value + lazy;
-        }
-    };
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
-    abstract int merge(int a, int b);
-    abstract int identity();
-    abstract int applyLazy(int value, int lazy, int length);
-}
+// Operation (MIN / MAX / SUM) is the shared enum in Operation.java
 
 class SegmentTreeLazy {
     int seg[];
@@ -68,6 +18,16 @@ class SegmentTreeLazy {
         build(0, 0, n - 1, arr);
     }
 
+    // Same as above, but the build is split across the pool's threads.
+    // seg[] has the same shape as SegmentTree's, so SegmentTreeBuildTask is reused.
+    SegmentTreeLazy(int arr[], Operation operation, ForkJoinPool pool) {
+        this.n = arr.length;
+        seg = new int[4 * n + 1];
+        lazy = new int[4 * n + 1];
+        this.operation = operation;
+        pool.invoke(new SegmentTreeBuildTask(seg, arr, operation, 0, 0, n - 1));
+    }
+
     void build(int ind, int left, int right, int arr[]) {
         if (left == right) {
             seg[ind] = arr[left];
@@ -172,4 +132,180 @@ class SegmentTreeLazy {
 
         return rangeQuery(0, 0, n - 1, leftQ, rightQ);
     }
+
+    // Scratch buffer for batch calls, reused so a batch allocates nothing once warmed up
+    long batchKeys[];
+
+    long[] batchKeys(int count) {
+        if (batchKeys == null || batchKeys.length < count) batchKeys = new long[count];
+        return batchKeys;
+    }
+
+    // Sorts positions 0...q-1 by lefts[] and returns them packed as (left << 32) | position
+    long[] sortByLeft(int lefts[]) {
+        int q = lefts.length;
+        long keys[] = batchKeys(q);
+        for (int k = 0; k < q; k++) keys[k] = ((long) Math.max(lefts[k], 0) << 32) | k;
+        Arrays.sort(keys, 0, q);
+        return keys;
+    }
+
+    // Batches are processed in sorted blocks of BATCH_BLOCK, one shared descent per block
+    static final int BATCH_BLOCK = 1 << 12;
+
+    // Block-local copies of the current block (slot s = one request), so the descent stays in cache
+    int blockLeft[], blockRight[], blockValue[];
+    // leftLists[d] / rightLists[d] = slots that reach the left / right child of a node at depth d - 1
+    int leftLists[][], rightLists[][];
+
+    void batchBuffers() {
+        if (leftLists != null) return;
+        int depth = 34 - Integer.numberOfLeadingZeros(n);   // > ceil(log2 n) + 1 levels
+        leftLists = new int[depth][BATCH_BLOCK];
+        rightLists = new int[depth][BATCH_BLOCK];
+        blockLeft = new int[BATCH_BLOCK];
+        blockRight = new int[BATCH_BLOCK];
+        blockValue = new int[BATCH_BLOCK];
+    }
+
+    // Copies the non-empty clamped ranges of keys[from...to) into block slots; returns how many.
+    // values == null (queries): blockValue starts at the identity and collects the answer.
+    int loadBlock(long keys[], int from, int to, int lefts[], int rights[], int values[]) {
+        int root[] = leftLists[0], count = 0;
+        for (int k = from; k < to; k++) {
+            int i = (int) keys[k];
+            int leftQ = Math.max(lefts[i], 0), rightQ = Math.min(rights[i], n - 1);
+            if (leftQ > rightQ) continue;
+
+            blockLeft[count] = leftQ;
+            blockRight[count] = rightQ;
+            blockValue[count] = values == null ? operation.identity() : values[i];
+            root[count] = count++;
+        }
+        return count;
+    }
+
+    // Answers rangeQuery(lefts[i], rights[i]) into out[i].
+    // Each sorted block walks the tree once: a node is pushed down once per block
+    // and serves every query that reaches it.
+    void queryAll(int lefts[], int rights[], int out[]) {
+        int q = lefts.length;
+        long keys[] = sortByLeft(lefts);
+        batchBuffers();
+
+        for (int from = 0; from < q; from += BATCH_BLOCK) {
+            int to = Math.min(q, from + BATCH_BLOCK);
+            int count = loadBlock(keys, from, to, lefts, rights, null);
+            if (count > 0) queryAll(0, 0, n - 1, 0, leftLists[0], count);
+
+            // slots were filled in key order
+            for (int k = from, s = 0; k < to; k++) {
+                int i = (int) keys[k];
+                out[i] = Math.max(lefts[i], 0) <= Math.min(rights[i], n - 1) ? blockValue[s++] : operation.identity();
+            }
+        }
+    }
+
+    // list[0...count) are the slots overlapping [left...right]. Fully covered ones take seg[ind],
+    // the rest are split between the children in one pass.
+    void queryAll(int ind, int left, int right, int depth, int list[], int count) {
+        // nothing left to share: plain recursion
+        if (count == 1) {
+            int s = list[0];
+            blockValue[s] = operation.merge(blockValue[s], rangeQuery(ind, left, right, blockLeft[s], blockRight[s]));
+            return;
+        }
+
+        pushDown(ind, left, right);
+
+        if (left == right) {
+            for (int k = 0; k < count; k++) blockValue[list[k]] = operation.merge(blockValue[list[k]], seg[ind]);
+            return;
+        }
+
+        int mid = (left + right) / 2;
+        int leftList[] = leftLists[depth + 1], rightList[] = rightLists[depth + 1];
+        int leftCount = 0, rightCount = 0;
+
+        for (int k = 0; k < count; k++) {
+            int s = list[k];
+            if (blockLeft[s] <= left && right <= blockRight[s]) {
+                blockValue[s] = operation.merge(blockValue[s], seg[ind]);
+            } else {
+                if (blockLeft[s] <= mid) leftList[leftCount++] = s;
+                if (blockRight[s] > mid) rightList[rightCount++] = s;
+            }
+        }
+
+        if (leftCount > 0) queryAll(2 * ind + 1, left, mid, depth + 1, leftList, leftCount);
+        if (rightCount > 0) queryAll(2 * ind + 2, mid + 1, right, depth + 1, rightList, rightCount);
+    }
+
+    // Applies rangeUpdate(lefts[i], rights[i], values[i]) for every i.
+    // Additive updates commute, so each sorted block is applied in one descent:
+    // all updates covering a node are summed into a single lazy tag.
+    void updateAll(int lefts[], int rights[], int values[]) {
+        int q = lefts.length;
+        long keys[] = sortByLeft(lefts);
+        batchBuffers();
+
+        for (int from = 0; from < q; from += BATCH_BLOCK) {
+            int count = loadBlock(keys, from, Math.min(q, from + BATCH_BLOCK), lefts, rights, values);
+            if (count > 0) updateAll(0, 0, n - 1, 0, leftLists[0], count);
+        }
+    }
+
+    void updateAll(int ind, int left, int right, int depth, int list[], int count) {
+        // nothing left to share: plain recursion
+        if (count == 1) {
+            int s = list[0];
+            rangeUpdate(ind, left, right, blockLeft[s], blockRight[s], blockValue[s]);
+            return;
+        }
+
+        pushDown(ind, left, right);
+
+        // a leaf is always fully covered
+        if (left == right) {
+            int add = 0;
+            for (int k = 0; k < count; k++) add += blockValue[list[k]];
+            lazy[ind] += add;
+            pushDown(ind, left, right);
+            return;
+        }
+
+        int mid = (left + right) / 2;
+        int leftList[] = leftLists[depth + 1], rightList[] = rightLists[depth + 1];
+        int leftCount = 0, rightCount = 0, add = 0;
+
+        for (int k = 0; k < count; k++) {
+            int s = list[k];
+            if (blockLeft[s] <= left && right <= blockRight[s]) {
+                add += blockValue[s];
+            } else {
+                if (blockLeft[s] <= mid) leftList[leftCount++] = s;
+                if (blockRight[s] > mid) rightList[rightCount++] = s;
+            }
+        }
+
+        // Partial overlap: children are brought up to date (like rangeUpdate) and merged
+        if (leftCount + rightCount > 0) {
+            if (leftCount > 0) updateAll(2 * ind + 1, left, mid, depth + 1, leftList, leftCount);
+            else pushDown(2 * ind + 1, left, mid);
+
+            if (rightCount > 0) updateAll(2 * ind + 2, mid + 1, right, depth + 1, rightList, rightCount);
+            else pushDown(2 * ind + 2, mid + 1, right);
+
+            seg[ind] = operation.merge(
+                    seg[2 * ind + 1],
+                    seg[2 * ind + 2]
+            );
+        }
+
+        // Complete overlap: the summed tag
+        if (add != 0) {
+            lazy[ind] += add;
+            pushDown(ind, left, right);
+        }
+    }
 }
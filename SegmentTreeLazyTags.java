@@ -0,0 +1,424 @@
+import java.util.Arrays;
+
+// Lazy segment trees with richer range updates than SegmentTreeLazy (which only adds).
+// Values are long so sums of prices do not overflow.
+// Operation (MIN / MAX / SUM) is the shared enum in Operation.java
+
+/*
+ * Affine lazy tags: every pending update is x -> mul * x + add.
+ *
+ * - rangeAssign(v)   = (0, v)
+ * - rangeAdd(v)      = (1, v)
+ * - rangeAffine(m,a) = (m, a)
+ *
+ * Two tags compose into one tag: applying (m1, a1) then (m2, a2)
+ * gives (m2 * m1, m2 * a1 + a2), so any mix of updates stays O(log n).
+ * Each node keeps sum, min and max so all three queries work with every tag
+ * (a negative mul swaps min and max).
+ */
+class AffineSegmentTreeLazy {
+    long sum[], min[], max[];
+    long mul[], add[];
+    Operation operation;
+    int n;
+
+    // Constructor directly takes arr[]
+    AffineSegmentTreeLazy(long arr[], Operation operation) {
+        this.n = arr.length;
+        sum = new long[4 * n + 1];
+        min = new long[4 * n + 1];
+        max = new long[4 * n + 1];
+        mul = new long[4 * n + 1];
+        add = new long[4 * n + 1];
+        Arrays.fill(mul, 1);
+        this.operation = operation;
+        build(0, 0, n - 1, arr);
+    }
+
+    void build(int ind, int left, int right, long arr[]) {
+        if (left == right) {
+            sum[ind] = min[ind] = max[ind] = arr[left];
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        build(2 * ind + 1, left, mid, arr);
+        build(2 * ind + 2, mid + 1, right, arr);
+
+        pull(ind);
+    }
+
+    void pull(int ind) {
+        sum[ind] = sum[2 * ind + 1] + sum[2 * ind + 2];
+        min[ind] = Math.min(min[2 * ind + 1], min[2 * ind + 2]);
+        max[ind] = Math.max(max[2 * ind + 1], max[2 * ind + 2]);
+    }
+
+    // Applies x -> m * x + a to the node and stacks it on the node's pending tag
+    void apply(int ind, int length, long m, long a) {
+        sum[ind] = sum[ind] * m + a * length;
+
+        if (m >= 0) {
+            min[ind] = min[ind] * m + a;
+            max[ind] = max[ind] * m + a;
+        } else {
+            long newMin = max[ind] * m + a;
+            max[ind] = min[ind] * m + a;
+            min[ind] = newMin;
+        }
+
+        // compose: new tag after old tag
+        mul[ind] = mul[ind] * m;
+        add[ind] = add[ind] * m + a;
+    }
+
+    // Node values are always up to date; the tag is only pending for the children
+    void pushDown(int ind, int left, int right) {
+        if (mul[ind] == 1 && add[ind] == 0) return;
+
+        int mid = (left + right) / 2;
+        apply(2 * ind + 1, mid - left + 1, mul[ind], add[ind]);
+        apply(2 * ind + 2, right - mid, mul[ind], add[ind]);
+
+        mul[ind] = 1;
+        add[ind] = 0;
+    }
+
+    void rangeAffine(int ind, int left, int right, int leftQ, int rightQ, long m, long a) {
+        // No overlap
+        if (rightQ < left || right < leftQ) return;
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ) {
+            apply(ind, right - left + 1, m, a);
+            return;
+        }
+
+        // Partial overlap
+        pushDown(ind, left, right);
+
+        int mid = (left + right) / 2;
+
+        rangeAffine(2 * ind + 1, left, mid, leftQ, rightQ, m, a);
+        rangeAffine(2 * ind + 2, mid + 1, right, leftQ, rightQ, m, a);
+
+        pull(ind);
+    }
+
+    long nodeValue(int ind) {
+        switch (operation) {
+            case MIN: return min[ind];
+            case MAX: return max[ind];
+            default: return sum[ind];
+        }
+    }
+
+    long rangeQuery(int ind, int left, int right, int leftQ, int rightQ) {
+        // No overlap
+        if (rightQ < left || right < leftQ)
+            return operation.identityLong();
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ)
+            return nodeValue(ind);
+
+        // Partial overlap
+        pushDown(ind, left, right);
+
+        int mid = (left + right) / 2;
+
+        long leftResult = rangeQuery(2 * ind + 1, left, mid, leftQ, rightQ);
+        long rightResult = rangeQuery(2 * ind + 2, mid + 1, right, leftQ, rightQ);
+
+        return operation.merge(leftResult, rightResult);
+    }
+
+    // User-friendly range affine update: a[i] = m * a[i] + a
+    void rangeAffine(int leftQ, int rightQ, long m, long a) {
+        if (leftQ < 0) leftQ = 0;
+        if (rightQ >= n) rightQ = n - 1;
+        if (leftQ > rightQ) return;
+
+        rangeAffine(0, 0, n - 1, leftQ, rightQ, m, a);
+    }
+
+    // a[i] = value
+    void rangeAssign(int leftQ, int rightQ, long value) {
+        rangeAffine(leftQ, rightQ, 0, value);
+    }
+
+    // a[i] += value
+    void rangeAdd(int leftQ, int rightQ, long value) {
+        rangeAffine(leftQ, rightQ, 1, value);
+    }
+
+    // User-friendly range query
+    long rangeQuery(int leftQ, int rightQ) {
+        if (leftQ < 0) leftQ = 0;
+        if (rightQ >= n) rightQ = n - 1;
+        if (leftQ > rightQ) return operation.identityLong();
+
+        return rangeQuery(0, 0, n - 1, leftQ, rightQ);
+    }
+}
+
+/*
+ * Segment Tree Beats (Ji Ruyi): range chmin / chmax / add / assign
+ * with range sum, min and max queries.
+ *
+ * Besides the maximum, every node keeps the strict second maximum and how many
+ * times the maximum occurs (and the same for the minimum). chmin(v) with
+ * max2 < v < max1 only lowers the maximum elements, so it is applied to the
+ * node as a tag: sum -= (max1 - v) * maxCount. Otherwise we recurse.
+ * The recursion is amortised O(log n) per chmin/chmax (O(log^2 n) with adds).
+ */
+class SegmentTreeBeats {
+    static final long NONE_MAX = Long.MIN_VALUE;   // "no second maximum"
+    static final long NONE_MIN = Long.MAX_VALUE;   // "no second minimum"
+
+    long sum[];
+    long max1[], max2[], min1[], min2[];
+    int maxCount[], minCount[];
+    long lazyAdd[];
+    Operation operation;
+    int n;
+
+    // Constructor directly takes arr[]
+    SegmentTreeBeats(long arr[], Operation operation) {
+        this.n = arr.length;
+        sum = new long[4 * n + 1];
+        max1 = new long[4 * n + 1];
+        max2 = new long[4 * n + 1];
+        min1 = new long[4 * n + 1];
+        min2 = new long[4 * n + 1];
+        maxCount = new int[4 * n + 1];
+        minCount = new int[4 * n + 1];
+        lazyAdd = new long[4 * n + 1];
+        this.operation = operation;
+        build(0, 0, n - 1, arr);
+    }
+
+    void build(int ind, int left, int right, long arr[]) {
+        if (left == right) {
+            sum[ind] = max1[ind] = min1[ind] = arr[left];
+            max2[ind] = NONE_MAX;
+            min2[ind] = NONE_MIN;
+            maxCount[ind] = minCount[ind] = 1;
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        build(2 * ind + 1, left, mid, arr);
+        build(2 * ind + 2, mid + 1, right, arr);
+
+        pull(ind);
+    }
+
+    void pull(int ind) {
+        int l = 2 * ind + 1, r = 2 * ind + 2;
+        sum[ind] = sum[l] + sum[r];
+
+        if (max1[l] == max1[r]) {
+            max1[ind] = max1[l];
+            maxCount[ind] = maxCount[l] + maxCount[r];
+            max2[ind] = Math.max(max2[l], max2[r]);
+        } else if (max1[l] > max1[r]) {
+            max1[ind] = max1[l];
+            maxCount[ind] = maxCount[l];
+            max2[ind] = Math.max(max2[l], max1[r]);
+        } else {
+            max1[ind] = max1[r];
+            maxCount[ind] = maxCount[r];
+            max2[ind] = Math.max(max1[l], max2[r]);
+        }
+
+        if (min1[l] == min1[r]) {
+            min1[ind] = min1[l];
+            minCount[ind] = minCount[l] + minCount[r];
+            min2[ind] = Math.min(min2[l], min2[r]);
+        } else if (min1[l] < min1[r]) {
+            min1[ind] = min1[l];
+            minCount[ind] = minCount[l];
+            min2[ind] = Math.min(min2[l], min1[r]);
+        } else {
+            min1[ind] = min1[r];
+            minCount[ind] = minCount[r];
+            min2[ind] = Math.min(min1[l], min2[r]);
+        }
+    }
+
+    void applyAdd(int ind, int length, long value) {
+        sum[ind] += value * length;
+        max1[ind] += value;
+        min1[ind] += value;
+        if (max2[ind] != NONE_MAX) max2[ind] += value;
+        if (min2[ind] != NONE_MIN) min2[ind] += value;
+        lazyAdd[ind] += value;
+    }
+
+    // Lowers every maximum element to value (requires max2 < value < max1)
+    void applyChmin(int ind, long value) {
+        if (value >= max1[ind]) return;
+        sum[ind] -= (max1[ind] - value) * maxCount[ind];
+
+        // the maximum may also be the minimum or the second minimum
+        if (min1[ind] == max1[ind]) min1[ind] = value;
+        else if (min2[ind] == max1[ind]) min2[ind] = value;
+
+        max1[ind] = value;
+    }
+
+    // Raises every minimum element to value (requires min1 < value < min2)
+    void applyChmax(int ind, long value) {
+        if (value <= min1[ind]) return;
+        sum[ind] += (value - min1[ind]) * minCount[ind];
+
+        if (max1[ind] == min1[ind]) max1[ind] = value;
+        else if (max2[ind] == min1[ind]) max2[ind] = value;
+
+        min1[ind] = value;
+    }
+
+    // Node values are always up to date; children catch up here
+    void pushDown(int ind, int left, int right) {
+        int mid = (left + right) / 2;
+        int l = 2 * ind + 1, r = 2 * ind + 2;
+
+        if (lazyAdd[ind] != 0) {
+            applyAdd(l, mid - left + 1, lazyAdd[ind]);
+            applyAdd(r, right - mid, lazyAdd[ind]);
+            lazyAdd[ind] = 0;
+        }
+
+        // a pending chmin / chmax shows up as a child max above / min below the parent's
+        applyChmin(l, max1[ind]);
+        applyChmin(r, max1[ind]);
+        applyChmax(l, min1[ind]);
+        applyChmax(r, min1[ind]);
+    }
+
+    void rangeChmin(int ind, int left, int right, int leftQ, int rightQ, long value) {
+        // No overlap, or nothing above value
+        if (rightQ < left || right < leftQ || max1[ind] <= value) return;
+
+        // Complete overlap and only the maximum is affected -> tag
+        if (leftQ <= left && right <= rightQ && max2[ind] < value) {
+            applyChmin(ind, value);
+            return;
+        }
+
+        pushDown(ind, left, right);
+
+        int mid = (left + right) / 2;
+
+        rangeChmin(2 * ind + 1, left, mid, leftQ, rightQ, value);
+        rangeChmin(2 * ind + 2, mid + 1, right, leftQ, rightQ, value);
+
+        pull(ind);
+    }
+
+    void rangeChmax(int ind, int left, int right, int leftQ, int rightQ, long value) {
+        // No overlap, or nothing below value
+        if (rightQ < left || right < leftQ || min1[ind] >= value) return;
+
+        // Complete overlap and only the minimum is affected -> tag
+        if (leftQ <= left && right <= rightQ && min2[ind] > value) {
+            applyChmax(ind, value);
+            return;
+        }
+
+        pushDown(ind, left, right);
+
+        int mid = (left + right) / 2;
+
+        rangeChmax(2 * ind + 1, left, mid, leftQ, rightQ, value);
+        rangeChmax(2 * ind + 2, mid + 1, right, leftQ, rightQ, value);
+
+        pull(ind);
+    }
+
+    void rangeAdd(int ind, int left, int right, int leftQ, int rightQ, long value) {
+        // No overlap
+        if (rightQ < left || right < leftQ) return;
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ) {
+            applyAdd(ind, right - left + 1, value);
+            return;
+        }
+
+        pushDown(ind, left, right);
+
+        int mid = (left + right) / 2;
+
+        rangeAdd(2 * ind + 1, left, mid, leftQ, rightQ, value);
+        rangeAdd(2 * ind + 2, mid + 1, right, leftQ, rightQ, value);
+
+        pull(ind);
+    }
+
+    long nodeValue(int ind) {
+        switch (operation) {
+            case MIN: return min1[ind];
+            case MAX: return max1[ind];
+            default: return sum[ind];
+        }
+    }
+
+    long rangeQuery(int ind, int left, int right, int leftQ, int rightQ) {
+        // No overlap
+        if (rightQ < left || right < leftQ)
+            return operation.identityLong();
+
+        // Complete overlap
+        if (leftQ <= left && right <= rightQ)
+            return nodeValue(ind);
+
+        // Partial overlap
+        pushDown(ind, left, right);
+
+        int mid = (left + right) / 2;
+
+        long leftResult = rangeQuery(2 * ind + 1, left, mid, leftQ, rightQ);
+        long rightResult = rangeQuery(2 * ind + 2, mid + 1, right, leftQ, rightQ);
+
+        return operation.merge(leftResult, rightResult);
+    }
+
+    // True if [leftQ, rightQ] still has elements after clamping it into the array
+    boolean inRange(int leftQ, int rightQ) {
+        return Math.max(leftQ, 0) <= Math.min(rightQ, n - 1);
+    }
+
+    // a[i] = min(a[i], value)
+    void rangeChmin(int leftQ, int rightQ, long value) {
+        if (!inRange(leftQ, rightQ)) return;
+        rangeChmin(0, 0, n - 1, Math.max(leftQ, 0), Math.min(rightQ, n - 1), value);
+    }
+
+    // a[i] = max(a[i], value)
+    void rangeChmax(int leftQ, int rightQ, long value) {
+        if (!inRange(leftQ, rightQ)) return;
+        rangeChmax(0, 0, n - 1, Math.max(leftQ, 0), Math.min(rightQ, n - 1), value);
+    }
+
+    // a[i] += value
+    void rangeAdd(int leftQ, int rightQ, long value) {
+        if (!inRange(leftQ, rightQ)) return;
+        rangeAdd(0, 0, n - 1, Math.max(leftQ, 0), Math.min(rightQ, n - 1), value);
+    }
+
+    // a[i] = value, done as chmin(value) followed by chmax(value)
+    void rangeAssign(int leftQ, int rightQ, long value) {
+        rangeChmin(leftQ, rightQ, value);
+        rangeChmax(leftQ, rightQ, value);
+    }
+
+    // User-friendly range query
+    long rangeQuery(int leftQ, int rightQ) {
+        if (!inRange(leftQ, rightQ)) return operation.identityLong();
+        return rangeQuery(0, 0, n - 1, Math.max(leftQ, 0), Math.min(rightQ, n - 1));
+    }
+}
@@ -1,41 +1,7 @@
-enum Operation {
-    MIN {
-        @Override
-        int merge(int a, int b) {
-            return Math.min(a, b);
-        }
-
-        @Override
-        int identity() {
-            return Integer.MAX_VALUE;
-        }
-    },
-    MAX {
-        @Override
-        int merge(int a, int b) {
-            return Math.max(a, b);
-        }
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
-        @Override
-        int identity() {
-            return Integer.MIN_VALUE;
-        }
-    },
-    SUM {
-        @Override
-        int merge(int a, int b) {
-            return a + b;
-        }
-
-        @Override
-        int identity() {
-            return 0;
-        }
-    };
-
-    abstract int merge(int a, int b);
-    abstract int identity();
-}
+// Operation (MIN / MAX / SUM) is the shared enum in Operation.java
 
 class SegmentTree {
     int seg[];
@@ -50,6 +16,14 @@ class SegmentTree {
         build(0, 0, n - 1, arr);
     }
 
+    // Same as above, but the build is split across the pool's threads
+    SegmentTree(int arr[], Operation operation, ForkJoinPool pool) {
+        this.n = arr.length;
+        seg = new int[4 * n + 1];
+        this.operation = operation;
+        pool.invoke(new SegmentTreeBuildTask(seg, arr, operation, 0, 0, n - 1));
+    }
+
     void build(int ind, int left, int right, int arr[]) {
         if (left == right) {
             seg[ind] = arr[left];
@@ -118,4 +92,202 @@ class SegmentTree {
     void pointUpdate(int indQ, int value) {
         pointUpdate(0, 0, n - 1, indQ, value);
     }
+
+    // Scratch buffer for batch calls, reused so a batch allocates nothing once warmed up
+    long batchKeys[];
+
+    long[] batchKeys(int count) {
+        if (batchKeys == null || batchKeys.length < count) batchKeys = new long[count];
+        return batchKeys;
+    }
+
+    // Queries are answered in sorted blocks of BATCH_BLOCK, one shared descent per block
+    static final int BATCH_BLOCK = 1 << 12;
+
+    // Block-local copies of the current block (slot s = one query), so the descent stays in cache
+    int blockLeft[], blockRight[], blockResult[];
+    // leftLists[d] / rightLists[d] = slots that reach the left / right child of a node at depth d - 1
+    int leftLists[][], rightLists[][];
+
+    void batchBuffers() {
+        if (leftLists != null) return;
+        int depth = 34 - Integer.numberOfLeadingZeros(n);   // > ceil(log2 n) + 1 levels
+        leftLists = new int[depth][BATCH_BLOCK];
+        rightLists = new int[depth][BATCH_BLOCK];
+        blockLeft = new int[BATCH_BLOCK];
+        blockRight = new int[BATCH_BLOCK];
+        blockResult = new int[BATCH_BLOCK];
+    }
+
+    // Answers query(lefts[i], rights[i]) into out[i].
+    // Queries are sorted by left end and taken in blocks. Each block walks the tree once:
+    // a node is visited once per block and serves every query that reaches it.
+    void queryAll(int lefts[], int rights[], int out[]) {
+        int q = lefts.length;
+        long keys[] = batchKeys(q);
+        batchBuffers();
+
+        // key = (left << 32) | original position
+        for (int k = 0; k < q; k++) keys[k] = ((long) Math.max(lefts[k], 0) << 32) | k;
+        Arrays.sort(keys, 0, q);
+
+        for (int from = 0; from < q; from += BATCH_BLOCK) {
+            int to = Math.min(q, from + BATCH_BLOCK), count = 0;
+            int root[] = leftLists[0];
+            for (int k = from; k < to; k++) {
+                int i = (int) keys[k];
+                int leftQ = Math.max(lefts[i], 0), rightQ = Math.min(rights[i], n - 1);
+                out[i] = operation.identity();
+                if (leftQ > rightQ) continue;
+
+                blockLeft[count] = leftQ;
+                blockRight[count] = rightQ;
+                blockResult[count] = operation.identity();
+                root[count] = count++;
+            }
+            if (count == 0) continue;
+
+            queryAll(0, 0, n - 1, 0, root, count);
+
+            // slots were filled in key order
+            for (int k = from, s = 0; k < to; k++) {
+                int i = (int) keys[k];
+                if (Math.max(lefts[i], 0) <= Math.min(rights[i], n - 1)) out[i] = blockResult[s++];
+            }
+        }
+    }
+
+    // list[0...count) are the slots overlapping [left...right]. Fully covered ones take seg[ind],
+    // the rest are split between the children in one pass. Left before right keeps merges in order.
+    void queryAll(int ind, int left, int right, int depth, int list[], int count) {
+        // nothing left to share: plain recursion
+        if (count == 1) {
+            int s = list[0];
+            blockResult[s] = operation.merge(blockResult[s], query(ind, left, right, blockLeft[s], blockRight[s]));
+            return;
+        }
+
+        if (left == right) {
+            for (int k = 0; k < count; k++) blockResult[list[k]] = operation.merge(blockResult[list[k]], seg[ind]);
+            return;
+        }
+
+        int mid = (left + right) / 2;
+        int leftList[] = leftLists[depth + 1], rightList[] = rightLists[depth + 1];
+        int leftCount = 0, rightCount = 0;
+
+        for (int k = 0; k < count; k++) {
+            int s = list[k];
+            if (blockLeft[s] <= left && right <= blockRight[s]) {
+                blockResult[s] = operation.merge(blockResult[s], seg[ind]);
+            } else {
+                if (blockLeft[s] <= mid) leftList[leftCount++] = s;
+                if (blockRight[s] > mid) rightList[rightCount++] = s;
+            }
+        }
+
+        // left subtree
+        if (leftCount > 0) queryAll(2 * ind + 1, left, mid, depth + 1, leftList, leftCount);
+
+        // right subtree (deeper levels only write depth + 2 and below)
+        if (rightCount > 0) queryAll(2 * ind + 2, mid + 1, right, depth + 1, rightList, rightCount);
+    }
+
+    // Applies pointUpdate(indices[i], values[i]) for every i, in order.
+    // All leaves are written in one traversal, so every internal node is merged only once.
+    void updateAll(int indices[], int values[]) {
+        int q = indices.length;
+        if (q == 0) return;
+        long keys[] = batchKeys(q);
+
+        // key = (index << 32) | original position, ties keep the original order
+        for (int k = 0; k < q; k++) keys[k] = ((long) indices[k] << 32) | k;
+        Arrays.sort(keys, 0, q);
+
+        updateAll(0, 0, n - 1, keys, 0, q, values);
+    }
+
+    // keys[from...to) are the sorted updates that fall inside [left...right]
+    void updateAll(int ind, int left, int right, long keys[], int from, int to, int values[]) {
+        if (from == to) return;
+
+        if (left == right) {
+            // last update in the original order wins
+            seg[ind] = values[(int) keys[to - 1]];
+            return;
+        }
+
+        int mid = (left + right) / 2;
+
+        // first key that belongs to the right subtree
+        int split = from;
+        while (split < to && (int) (keys[split] >>> 32) <= mid) split++;
+
+        updateAll(2 * ind + 1, left, mid, keys, from, split, values);
+        updateAll(2 * ind + 2, mid + 1, right, keys, split, to, values);
+
+        seg[ind] = operation.merge(
+                seg[2 * ind + 1],
+                seg[2 * ind + 2]
+        );
+    }
+}
+
+/*
+ * Iterative bottom-up segment tree (same Operation enum, no recursion).
+ *
+ * Leaves live at seg[n...2n-1] and node i stores merge(seg[2i], seg[2i+1]),
+ * so the whole tree fits in 2n ints instead of 4n + 1.
+ * Query and update are simple loops that walk up from the leaves.
+ */
+class IterativeSegmentTree {
+    int seg[];
+    Operation operation;
+    int n;
+
+    // Constructor directly takes arr[]
+    IterativeSegmentTree(int arr[], Operation operation) {
+        this.n = arr.length;
+        seg = new int[2 * n];
+        this.operation = operation;
+        build(arr);
+    }
+
+    void build(int arr[]) {
+        // copy leaves
+        System.arraycopy(arr, 0, seg, n, n);
+
+        // fill internal nodes from the bottom
+        for (int i = n - 1; i > 0; i--) {
+            seg[i] = operation.merge(seg[2 * i], seg[2 * i + 1]);
+        }
+    }
+
+    // Inclusive range [leftQ...rightQ], same contract as SegmentTree.query
+    int query(int leftQ, int rightQ) {
+        int resLeft = operation.identity();
+        int resRight = operation.identity();
+
+        // half-open [l, r) over the leaf layer
+        int l = leftQ + n, r = rightQ + n + 1;
+        while (l < r) {
+            // l is a right child -> take it and move right
+            if ((l & 1) == 1) resLeft = operation.merge(resLeft, seg[l++]);
+            // r is a right child -> take its left sibling
+            if ((r & 1) == 1) resRight = operation.merge(seg[--r], resRight);
+            l >>= 1;
+            r >>= 1;
+        }
+        return operation.merge(resLeft, resRight);
+    }
+
+    void pointUpdate(int indQ, int value) {
+        int i = indQ + n;
+        seg[i] = value;
+
+        // recompute parents on the path to the root
+        for (i >>= 1; i > 0; i >>= 1) {
+            seg[i] = operation.merge(seg[2 * i], seg[2 * i + 1]);
+        }
+    }
 }
@@ -0,0 +1,220 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Segmented, odds-only, bit-packed sieve of Eratosthenes.
+ *
+ * - Only odd numbers are stored, one bit each (16x smaller than boolean[]).
+ *   Bit j of a segment starting at odd `lo` stands for lo + 2j; 1 = composite.
+ * - The range is sieved one segment (32 KB of bits, fits L1/L2) at a time with the
+ *   base primes <= sqrt(hi), so memory is O(sqrt(hi) + segment), not O(hi).
+ * - count(lo, hi, pool) sieves segments in parallel on a ForkJoinPool;
+ *   iterator(lo, hi) walks the primes of [lo, hi] lazily, one segment at a time.
+ */
+class SegmentedSieve {
+    static final int SEGMENT_BITS = 1 << 18;          // 32 KB of bits = 2^19 numbers
+    static final int SEGMENT_WORDS = SEGMENT_BITS >>> 6;
+
+    // Odd primes <= sqrt(hi), from the plain sieve
+    static int[] basePrimes(long hi) {
+        int root = (int) isqrt(hi);
+        boolean isPrime[] = SieveTemplate.sieve(Math.max(root, 2));
+        int count = 0;
+        for (int i = 3; i <= root; i += 2) if (isPrime[i]) count++;
+
+        int primes[] = new int[count];
+        count = 0;
+        for (int i = 3; i <= root; i += 2) if (isPrime[i]) primes[count++] = i;
+        return primes;
+    }
+
+    static long isqrt(long x) {
+        long r = (long) Math.sqrt((double) x);
+        while (r * r > x) r--;
+        while ((r + 1) * (r + 1) <= x) r++;
+        return r;
+    }
+
+    /*
+     * Sieves bitCount odd numbers lo, lo + 2, ... (lo odd) into bits[].
+     * Every odd p only crosses out odd multiples, starting at max(p * p, first odd multiple >= lo).
+     */
+    static void sieveSegment(long lo, int bitCount, long bits[], int basePrimes[]) {
+        Arrays.fill(bits, 0, (bitCount + 63) >>> 6, 0L);
+        long hi = lo + 2L * (bitCount - 1);
+
+        for (int p : basePrimes) {
+            long square = (long) p * p;
+            if (square > hi) break;
+
+            long start = square;
+            if (start < lo) {
+                start = (lo + p - 1) / p * p;
+                if ((start & 1) == 0) start += p;
+            }
+            for (long j = (start - lo) >>> 1; j < bitCount; j += p) {
+                bits[(int) (j >>> 6)] |= 1L << j;
+            }
+        }
+        if (lo == 1) bits[0] |= 1L;   // 1 is not prime
+    }
+
+    // Number of zero bits among the first bitCount bits
+    static int countPrimes(long bits[], int bitCount) {
+        int full = bitCount >>> 6, count = 0;
+        for (int w = 0; w < full; w++) count += Long.bitCount(~bits[w]);
+        int rest = bitCount & 63;
+        if (rest != 0) count += Long.bitCount(~bits[full] & ((1L << rest) - 1));
+        return count;
+    }
+
+    // First odd number >= max(lo, 1)
+    static long firstOdd(long lo) {
+        return lo <= 1 ? 1 : lo | 1;
+    }
+
+    // Number of odd numbers in [firstOdd(lo), hi]
+    static long oddCount(long lo, long hi) {
+        long first = firstOdd(lo), last = (hi & 1) == 1 ? hi : hi - 1;
+        return last < first ? 0 : (last - first) / 2 + 1;
+    }
+
+    // pi(hi) - pi(lo - 1), sequential
+    static long count(long lo, long hi) {
+        return count(lo, hi, null);
+    }
+
+    // pi(hi) - pi(lo - 1); segments are sieved in parallel if a pool is given
+    static long count(long lo, long hi, ForkJoinPool pool) {
+        if (hi < 2 || hi < lo) return 0;
+        long result = lo <= 2 ? 1 : 0;   // the only even prime
+
+        long odds = oddCount(lo, hi);
+        if (odds == 0) return result;
+        int basePrimes[] = basePrimes(hi);
+        long segments = (odds + SEGMENT_BITS - 1) / SEGMENT_BITS;
+
+        SieveCountTask task = new SieveCountTask(firstOdd(lo), odds, basePrimes, 0, segments);
+        return result + (pool == null ? task.compute() : pool.invoke(task));
+    }
+
+    static PrimitiveIterator.OfLong iterator(long lo, long hi) {
+        return new PrimeIterator(lo, hi);
+    }
+}
+
+/*
+ * Counts the primes in segments [fromSegment, toSegment) of the odd numbers
+ * first, first + 2, ... (odds of them in total). A leaf reuses one bits[] for
+ * all its segments.
+ */
+class SieveCountTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+    static final int LEAF_SEGMENTS = 8;
+
+    long first, odds;
+    int basePrimes[];
+    long fromSegment, toSegment;
+
+    SieveCountTask(long first, long odds, int basePrimes[], long fromSegment, long toSegment) {
+        this.first = first;
+        this.odds = odds;
+        this.basePrimes = basePrimes;
+        this.fromSegment = fromSegment;
+        this.toSegment = toSegment;
+    }
+
+    @Override
+    protected Long compute() {
+        if (toSegment - fromSegment <= LEAF_SEGMENTS) {
+            long bits[] = new long[SegmentedSieve.SEGMENT_WORDS];
+            long count = 0;
+            for (long s = fromSegment; s < toSegment; s++) {
+                long offset = s * SegmentedSieve.SEGMENT_BITS;
+                int bitCount = (int) Math.min(SegmentedSieve.SEGMENT_BITS, odds - offset);
+                SegmentedSieve.sieveSegment(first + 2 * offset, bitCount, bits, basePrimes);
+                count += SegmentedSieve.countPrimes(bits, bitCount);
+            }
+            return count;
+        }
+
+        long mid = (fromSegment + toSegment) >>> 1;
+        SieveCountTask left = new SieveCountTask(first, odds, basePrimes, fromSegment, mid);
+        SieveCountTask right = new SieveCountTask(first, odds, basePrimes, mid, toSegment);
+        left.fork();
+        return right.compute() + left.join();
+    }
+}
+
+/*
+ * Primes of [lo, hi] in increasing order. Only one segment is sieved at a
+ * time; the next one is sieved when the current one runs out.
+ */
+class PrimeIterator implements PrimitiveIterator.OfLong {
+    long hi;
+    int basePrimes[];
+    long bits[] = new long[SegmentedSieve.SEGMENT_WORDS];
+
+    boolean pendingTwo;       // 2 is in range and not returned yet
+    long segmentLo;           // odd number of bit 0 of the current segment
+    long remaining;           // odd numbers not yet sieved after the current segment
+    int bitCount, bit;        // current segment size and read position
+    long next = -1;           // next prime, or -1 at the end
+
+    PrimeIterator(long lo, long hi) {
+        this.hi = hi;
+        pendingTwo = lo <= 2 && hi >= 2;
+        remaining = SegmentedSieve.oddCount(lo, hi);
+        segmentLo = SegmentedSieve.firstOdd(lo);
+        if (remaining > 0) basePrimes = SegmentedSieve.basePrimes(hi);
+        advance();
+    }
+
+    void advance() {
+        if (pendingTwo) {
+            pendingTwo = false;
+            next = 2;
+            return;
+        }
+        while (true) {
+            while (bit < bitCount) {
+                int word = bit >>> 6;
+                // skip the composites of this word in one step
+                long free = ~bits[word] & (-1L << bit);
+                if (free != 0) {
+                    int found = (word << 6) + Long.numberOfTrailingZeros(free);
+                    if (found >= bitCount) break;
+                    bit = found + 1;
+                    next = segmentLo + 2L * found;
+                    return;
+                }
+                bit = (word + 1) << 6;
+            }
+            if (remaining == 0) {
+                next = -1;
+                return;
+            }
+            if (bitCount > 0) segmentLo += 2L * bitCount;
+            bitCount = (int) Math.min(SegmentedSieve.SEGMENT_BITS, remaining);
+            remaining -= bitCount;
+            bit = 0;
+            SegmentedSieve.sieveSegment(segmentLo, bitCount, bits, basePrimes);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != -1;
+    }
+
+    @Override
+    public long nextLong() {
+        if (next == -1) throw new NoSuchElementException();
+        long prime = next;
+        advance();
+        return prime;
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Rough timing harness for the sieves.
+ *
+ * Run with: java SieveBenchmark [n] [maxThreads]
+ * Every method counts the primes <= n (the counts must agree). The boolean[]
+ * sieve needs n + 1 bytes of heap, so keep n within -Xmx.
+ * Then LinearSieve (table of min(n, 10^7)) factorises random ints by spf lookups
+ * and by trial division, and random 63-bit longs by Pollard rho.
+ * Last, MappedPrimeTable is built once into a temp file and reopened, with and
+ * without the data checksum (the cost a later process pays at startup).
+ */
+public class SieveBenchmark {
+
+    static void report(String name, long startNanos, long primes) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-26s %8.3f s  %14.0f primes/s  primes=%d%n", name, seconds, primes / seconds, primes);
+    }
+
+    static long countBooleanSieve(int n) {
+        boolean isPrime[] = SieveTemplate.sieve(n);
+        long count = 0;
+        for (boolean prime : isPrime) if (prime) count++;
+        return count;
+    }
+
+    // Distinct prime factors of x by trial division (the baseline)
+    static int trialDivision(int x, int primesOut[], int expsOut[]) {
+        int count = 0;
+        for (int p = 2; p * p <= x; p++) {
+            if (x % p != 0) continue;
+            int e = 0;
+            do {
+                x /= p;
+                e++;
+            } while (x % p == 0);
+            primesOut[count] = p;
+            expsOut[count++] = e;
+        }
+        if (x > 1) {
+            primesOut[count] = x;
+            expsOut[count++] = 1;
+        }
+        return count;
+    }
+
+    static void factorization(int tableSize) {
+        long start = System.nanoTime();
+        LinearSieve sieve = new LinearSieve(tableSize);
+        report("LinearSieve (spf table)", start, sieve.primeCount);
+
+        int queries = 10_000_000;
+        int values[] = new Random(1).ints(queries, 1, tableSize + 1).toArray();
+        int primes[] = new int[10], exps[] = new int[10];
+
+        for (int round = 0; round < 2; round++) {   // first round is warm-up
+            long factors = 0;
+            start = System.nanoTime();
+            for (int x : values) factors += sieve.factorize(x, primes, exps);
+            double spfSeconds = (System.nanoTime() - start) / 1e9;
+
+            long checkFactors = 0;
+            start = System.nanoTime();
+            for (int x : values) checkFactors += trialDivision(x, primes, exps);
+            double trialSeconds = (System.nanoTime() - start) / 1e9;
+
+            if (round == 1) {
+                System.out.printf("factorize spf    %8.0f values/s  factors=%d%n", queries / spfSeconds, factors);
+                System.out.printf("trial division   %8.0f values/s  factors=%d%n", queries / trialSeconds, checkFactors);
+            }
+        }
+
+        Random random = new Random(2);
+        long longPrimes[] = new long[16];
+        int longExps[] = new int[16];
+        int count = 100_000;
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) sieve.factorize64(random.nextLong() >>> 1, longPrimes, longExps);
+        System.out.printf("factorize64      %8.0f values/s  (random 63-bit)%n", count / ((System.nanoTime() - start) / 1e9));
+    }
+
+    static void primeTableCache(long n) throws IOException {
+        Path file = Files.createTempFile("primes", ".bin");
+        Files.delete(file);   // load() must find nothing and build it
+        try {
+            long start = System.nanoTime();
+            try (MappedPrimeTable table = MappedPrimeTable.load(file, n)) {
+                report("MappedPrimeTable build", start, table.primeCount());
+            }
+
+            start = System.nanoTime();
+            try (MappedPrimeTable table = MappedPrimeTable.load(file, n)) {
+                report("MappedPrimeTable open+crc", start, table.primeCount());
+            }
+
+            start = System.nanoTime();
+            MappedPrimeTable table = MappedPrimeTable.load(file, n, false);
+            System.out.printf("%-26s %8.3f ms (header only)%n", "MappedPrimeTable open", (System.nanoTime() - start) / 1e6);
+
+            Random random = new Random(3);
+            int lookups = 10_000_000;
+            long found = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) if (table.isPrime((long) (random.nextDouble() * n))) found++;
+            System.out.printf("%-26s %8.0f lookups/s  primes=%d%n", "MappedPrimeTable isPrime",
+                    lookups / ((System.nanoTime() - start) / 1e9), found);
+            table.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        // warm-up on a smaller range
+        countBooleanSieve(n / 16);
+        SegmentedSieve.count(1, n / 16);
+
+        long start = System.nanoTime();
+        report("SieveTemplate.sieve", start, countBooleanSieve(n));
+
+        start = System.nanoTime();
+        report("SegmentedSieve", start, SegmentedSieve.count(1, n));
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            start = System.nanoTime();
+            report("SegmentedSieve x" + threads, start, SegmentedSieve.count(1, n, pool));
+            pool.shutdown();
+        }
+
+        start = System.nanoTime();
+        PrimitiveIterator.OfLong primes = SegmentedSieve.iterator(1, n);
+        long count = 0;
+        while (primes.hasNext()) {
+            primes.nextLong();
+            count++;
+        }
+        report("SegmentedSieve iterator", start, count);
+
+        factorization(Math.min(n, 10_000_000));
+        primeTableCache(n);
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 public class SieveTemplate {
 
     // Returns a boolean array where isPrime[i] = true if i is prime
@@ -0,0 +1,163 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * Kruskal's MST over an edge file that does not fit in memory.
+ *
+ * The file is a flat sequence of int triples (u, v, weight), big-endian.
+ * A file whose length is not a multiple of 12 bytes is rejected with EOFException.
+ * Edges are read in chunks. Each round sorts (current forest + next chunk) and
+ * runs Kruskal with DSU, keeping only the resulting forest (at most n - 1 edges).
+ * This is correct because MST(A + B) = MST(MST(A) + B): an edge dropped from
+ * MST(A) is the heaviest on some cycle and stays dropped.
+ *
+ * Memory is O(n + chunk) no matter how many edges the file has.
+ * Sorting is an LSD radix sort over packed long keys
+ * (weight with the sign bit flipped << 32 | slot), so there is no int[][] and no boxing.
+ */
+class StreamingKruskal {
+    int n;
+    DSU dsu;
+
+    // resulting minimum spanning forest
+    int forestU[], forestV[], forestW[];
+    int forestSize;
+    long totalWeight;
+
+    // round buffers: forest edges first, then the chunk
+    int u[], v[], w[];
+    long keys[], scratch[];
+
+    StreamingKruskal(int n, int chunkEdges) {
+        this.n = n;
+        dsu = new DSU(n);
+
+        forestU = new int[n];
+        forestV = new int[n];
+        forestW = new int[n];
+
+        int capacity = n + chunkEdges;
+        u = new int[capacity];
+        v = new int[capacity];
+        w = new int[capacity];
+        keys = new long[capacity];
+        scratch = new long[capacity];
+    }
+
+    // Computes the minimum spanning forest of the edges in the file (nodes 0 ... n)
+    static StreamingKruskal run(int n, Path edgeFile, int chunkEdges) throws IOException {
+        StreamingKruskal mst = new StreamingKruskal(n, chunkEdges);
+        mst.process(edgeFile, chunkEdges);
+        return mst;
+    }
+
+    void process(Path edgeFile, int chunkEdges) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(12 * 8192);
+
+        try (FileChannel channel = FileChannel.open(edgeFile, StandardOpenOption.READ)) {
+            boolean more = true;
+            buffer.flip(); // start empty
+
+            while (more) {
+                // forest from the previous rounds goes first
+                System.arraycopy(forestU, 0, u, 0, forestSize);
+                System.arraycopy(forestV, 0, v, 0, forestSize);
+                System.arraycopy(forestW, 0, w, 0, forestSize);
+                int count = forestSize;
+
+                int limit = forestSize + chunkEdges;
+                while (count < limit) {
+                    if (buffer.remaining() < 12) {
+                        buffer.compact();
+                        int read = channel.read(buffer);
+                        buffer.flip();
+                        if (read == -1 && buffer.remaining() < 12) {
+                            if (buffer.hasRemaining()) {
+                                throw new EOFException(edgeFile + " ends inside an edge record ("
+                                        + buffer.remaining() + " of 12 bytes)");
+                            }
+                            more = false;
+                            break;
+                        }
+                        continue;
+                    }
+                    u[count] = buffer.getInt();
+                    v[count] = buffer.getInt();
+                    w[count] = buffer.getInt();
+                    count++;
+                }
+
+                kruskal(count);
+            }
+        }
+    }
+
+    // Keeps the minimum spanning forest of the first count buffered edges
+    void kruskal(int count) {
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) (w[i] ^ Integer.MIN_VALUE) << 32) | i;
+        }
+        radixSort(keys, scratch, count);
+
+        resetDsu();
+        forestSize = 0;
+        totalWeight = 0;
+
+        for (int k = 0; k < count && forestSize < n; k++) {
+            int i = (int) keys[k];
+            if (dsu.union(u[i], v[i])) {
+                forestU[forestSize] = u[i];
+                forestV[forestSize] = v[i];
+                forestW[forestSize] = w[i];
+                forestSize++;
+                totalWeight += w[i];
+            }
+        }
+    }
+
+    void resetDsu() {
+        for (int i = 0; i <= n; i++) {
+            dsu.parent[i] = i;
+            dsu.size[i] = 1;
+        }
+    }
+
+    /*
+     * LSD radix sort of the first count keys, 16 bits per pass, treated as unsigned.
+     * A pass where every key has the same digit is skipped. Only the weight half
+     * needs sorting, because the slot half just breaks ties.
+     */
+    static void radixSort(long keys[], long scratch[], int count) {
+        int counts[] = new int[1 << 16];
+        long from[] = keys, to[] = scratch;
+
+        for (int shift = 32; shift < 64; shift += 16) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < count; i++) counts[(int) (from[i] >>> shift) & 0xFFFF]++;
+
+            // all keys share this digit -> the pass would not move anything
+            if (counts[(int) (from[0] >>> shift) & 0xFFFF] == count) continue;
+
+            int sum = 0;
+            for (int d = 0; d < counts.length; d++) {
+                int c = counts[d];
+                counts[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < count; i++) {
+                to[counts[(int) (from[i] >>> shift) & 0xFFFF]++] = from[i];
+            }
+
+            long temp[] = from;
+            from = to;
+            to = temp;
+        }
+
+        if (from != keys) System.arraycopy(from, 0, keys, 0, count);
+    }
+}
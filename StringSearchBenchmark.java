@@ -0,0 +1,237 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Rough throughput harness for the string matchers.
+ *
+ * Run with: java StringSearchBenchmark [megabytes] [patterns]
+ * The text is random lowercase words separated by spaces (log-like). Patterns are
+ * random substrings of it, so every pattern occurs at least once.
+ * Aho-Corasick scans once for all patterns. The baseline runs String.indexOf once
+ * per pattern (only on the first 100 patterns, since it is O(n * patterns)).
+ * KmpMatcher searches one pattern in memory, through a file channel and
+ * through a memory-mapped file (the text is written to a temp file first).
+ * Finally SubstringSearch (first/last byte SWAR filter) is compared with scalar
+ * KmpMatcher on English-like text, DNA and random bytes for several pattern lengths,
+ * after a check that its KMP fallback on periodic text agrees with KmpMatcher.
+ */
+public class StringSearchBenchmark {
+
+    static byte[] randomText(int bytes, long seed) {
+        Random random = new Random(seed);
+        byte text[] = new byte[bytes];
+        for (int i = 0; i < bytes; i++) {
+            text[i] = random.nextInt(7) == 0 ? (byte) ' ' : (byte) ('a' + random.nextInt(26));
+        }
+        return text;
+    }
+
+    static String[] randomPatterns(byte text[], int count, int minLen, int maxLen, long seed) {
+        Random random = new Random(seed);
+        String patterns[] = new String[count];
+        for (int i = 0; i < count; i++) {
+            int len = minLen + random.nextInt(maxLen - minLen + 1);
+            int start = random.nextInt(text.length - len);
+            patterns[i] = new String(text, start, len, StandardCharsets.ISO_8859_1);
+        }
+        return patterns;
+    }
+
+    static final String WORDS[] = {
+        "the", "of", "and", "to", "in", "is", "that", "it", "was", "for", "on", "are", "with",
+        "as", "they", "be", "at", "one", "have", "this", "from", "or", "had", "by", "word",
+        "but", "what", "some", "we", "can", "out", "other", "were", "all", "there", "when",
+        "up", "use", "your", "how", "said", "each", "which", "their", "time", "will", "way",
+        "about", "many", "then", "them", "write", "would", "like", "so", "these", "her",
+        "long", "make", "thing", "see", "him", "two", "has", "look", "more", "day", "could",
+        "go", "come", "did", "number", "sound", "no", "most", "people", "my", "over", "know",
+        "water", "than", "call", "first", "who", "may", "down", "side", "been", "now", "find"
+    };
+
+    // Words drawn with a skew towards the front of the list, separated by spaces
+    static byte[] englishText(int bytes, long seed) {
+        Random random = new Random(seed);
+        byte text[] = new byte[bytes];
+        int i = 0;
+        while (i < bytes) {
+            String word = WORDS[(int) (WORDS.length * Math.pow(random.nextDouble(), 2))];
+            for (int k = 0; k < word.length() && i < bytes; k++) text[i++] = (byte) word.charAt(k);
+            if (i < bytes) text[i++] = (byte) (random.nextInt(12) == 0 ? '.' : ' ');
+        }
+        return text;
+    }
+
+    static byte[] dnaText(int bytes, long seed) {
+        Random random = new Random(seed);
+        byte text[] = new byte[bytes];
+        for (int i = 0; i < bytes; i++) text[i] = (byte) "ACGT".charAt(random.nextInt(4));
+        return text;
+    }
+
+    static byte[] randomBytes(int bytes, long seed) {
+        byte text[] = new byte[bytes];
+        new Random(seed).nextBytes(text);
+        return text;
+    }
+
+    static void report(String name, long startNanos, long bytes, long matches) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-28s %8.3f s  %8.2f GB/s  matches=%d%n", name, seconds, bytes / seconds / 1e9, matches);
+    }
+
+    static long countIndexOf(String text, String patterns[]) {
+        long matches = 0;
+        for (String pattern : patterns) {
+            for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) matches++;
+        }
+        return matches;
+    }
+
+    static void ahoCorasick(byte text[], int patternCount) {
+        String patterns[] = randomPatterns(text, patternCount, 8, 24, 2);
+
+        long start = System.nanoTime();
+        AhoCorasick ac = new AhoCorasick(patterns);
+        System.out.printf("Aho-Corasick build: %d patterns, %d states, %d classes, %.1f MB, %.3f s%n",
+                patternCount, ac.states, ac.classes, ac.bytesUsed() / 1e6, (System.nanoTime() - start) / 1e9);
+
+        ac.count(text);   // warm-up
+        start = System.nanoTime();
+        long matches = ac.count(text);
+        report("AhoCorasick count", start, text.length, matches);
+
+        long found[] = new long[1];
+        start = System.nanoTime();
+        ac.scan(text, (pattern, end) -> found[0]++);
+        report("AhoCorasick scan + listener", start, text.length, found[0]);
+
+        // same first 100 patterns both ways, counts must agree
+        String few[] = Arrays.copyOf(patterns, Math.min(100, patterns.length));
+        String asString = new String(text, StandardCharsets.ISO_8859_1);
+        AhoCorasick small = new AhoCorasick(few);
+        small.count(text);
+        start = System.nanoTime();
+        long acMatches = small.count(text);
+        report("AhoCorasick (" + few.length + " patterns)", start, text.length, acMatches);
+
+        start = System.nanoTime();
+        long indexOfMatches = countIndexOf(asString, few);
+        report("indexOf x " + few.length, start, text.length, indexOfMatches);
+    }
+
+    static void kmp(byte text[]) throws IOException {
+        String pattern = randomPatterns(text, 1, 12, 12, 3)[0];
+        KmpMatcher matcher = new KmpMatcher(pattern);
+
+        matcher.feed(text, 0, text.length);   // warm-up
+        matcher.reset();
+        long start = System.nanoTime();
+        matcher.feed(text, 0, text.length);
+        report("KmpMatcher byte[]", start, text.length, matcher.matchCount);
+
+        Path file = Files.createTempFile("kmp", ".txt");
+        try {
+            Files.write(file, text);
+
+            matcher.reset();
+            start = System.nanoTime();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                matcher.search(channel);
+            }
+            report("KmpMatcher channel", start, text.length, matcher.matchCount);
+
+            matcher.reset();
+            start = System.nanoTime();
+            matcher.search(file);
+            report("KmpMatcher mapped", start, text.length, matcher.matchCount);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static void substringSearch(String corpus, byte text[]) {
+        Random random = new Random(5);
+        for (int m : new int[] {4, 8, 16, 64}) {
+            int start = random.nextInt(text.length - m);
+            byte pattern[] = Arrays.copyOfRange(text, start, start + m);
+
+            KmpMatcher kmp = new KmpMatcher(pattern);
+            SubstringSearch swar = new SubstringSearch(pattern);
+            kmp.feed(text, 0, text.length);   // warm-up
+            swar.findAll(text, 0, text.length);
+
+            kmp.reset();
+            long begin = System.nanoTime();
+            kmp.feed(text, 0, text.length);
+            report(corpus + " m=" + m + " KMP", begin, text.length, kmp.matchCount);
+
+            swar.matchCount = 0;
+            begin = System.nanoTime();
+            swar.findAll(text, 0, text.length);
+            report(corpus + " m=" + m + " SWAR", begin, text.length, swar.matchCount);
+        }
+    }
+
+    /*
+     * Periodic text makes SubstringSearch give up on the SWAR filter part-way through
+     * a block and hand over to KMP. Its matches must equal plain KMP's, with none reported twice.
+     */
+    static void checkFallback() {
+        Random random = new Random(6);
+        for (int round = 0; round < 200; round++) {
+            byte text[] = new byte[100 + random.nextInt(20_000)];
+            Arrays.fill(text, (byte) 'a');
+            for (int k = random.nextInt(4); k > 0; k--) text[random.nextInt(text.length)] = 'b';
+            byte pattern[] = random.nextBoolean() ? "aba".getBytes(StandardCharsets.US_ASCII)
+                    : Arrays.copyOfRange(text, 0, 2 + random.nextInt(12));
+
+            checkAgainstKmp(text, pattern);
+        }
+
+        // candidates at 1 / 4 density that fail near the end of a long pattern
+        byte text[] = new byte[1 << 20];
+        for (int i = 0; i < text.length; i++) text[i] = (byte) "abcd".charAt(i & 3);
+        byte pattern[] = Arrays.copyOf(text, 10_000);
+        pattern[pattern.length - 5] = 'x';
+        checkAgainstKmp(text, pattern);
+        pattern[pattern.length - 5] = 'd';
+        checkAgainstKmp(text, pattern);
+
+        System.out.println("SubstringSearch fallback check passed");
+    }
+
+    static void checkAgainstKmp(byte text[], byte pattern[]) {
+        SubstringSearch swar = new SubstringSearch(pattern);
+        KmpMatcher kmp = new KmpMatcher(pattern);
+        swar.findAll(text, 0, text.length);
+        kmp.feed(text, 0, text.length);
+
+        int first = swar.indexOf(text);
+        if (!Arrays.equals(swar.matches, 0, swar.matchCount, kmp.matches, 0, kmp.matchCount)
+                || first != (kmp.matchCount == 0 ? -1 : kmp.matches[0])) {
+            throw new IllegalStateException("SubstringSearch disagrees with KMP on periodic text, pattern of length "
+                    + pattern.length);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int patternCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        byte text[] = randomText(megabytes << 20, 1);
+        ahoCorasick(text, patternCount);
+        kmp(text);
+
+        checkFallback();
+        int bytes = megabytes << 20;
+        substringSearch("english", englishText(bytes, 4));
+        substringSearch("dna", dnaText(bytes, 4));
+        substringSearch("random", randomBytes(bytes, 4));
+    }
+}
@@ -0,0 +1,131 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Substring search with a first/last byte filter, 8 positions at a time (SWAR).
+ *
+ * For a block of 8 start positions i ... i + 7, two longs are loaded:
+ *   A = text[i ... i + 7]           compared with the first pattern byte
+ *   B = text[i + m - 1 ... + 7]     compared with the last pattern byte
+ * Bytes of A and B equal to the wanted byte are found with exact zero-byte bit
+ * tricks, and only positions where both match are verified (Arrays.equals on
+ * the middle, which the JIT vectorises). On most text almost every block has no
+ * candidate, so the loop runs without data-dependent branches.
+ *
+ * Periodic text ("aaaa..." with "aaab") makes most candidates fail late. The
+ * bytes compared by failed verifications are counted, and once they exceed
+ * FALLBACK_SLACK + 4 * (bytes scanned + m) the rest of the range is handed to
+ * KmpMatcher. Verification before the switch is O(n + m), so the worst case
+ * stays O(n + m).
+ */
+class SubstringSearch {
+    static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    static final long ONES = 0x0101010101010101L;
+    static final int FALLBACK_SLACK = 4096;     // bytes of failed verification always allowed
+    static final int KMP_CHUNK = 1 << 16;       // indexOf feeds KMP this much at a time
+
+    byte pattern[];
+    long firstBytes, lastBytes;   // first / last pattern byte repeated 8 times
+    KmpMatcher kmp;               // created on the first fallback
+
+    long matches[] = new long[16];
+    int matchCount;
+
+    SubstringSearch(String pattern) {
+        this(pattern.getBytes(StandardCharsets.UTF_8));
+    }
+
+    SubstringSearch(byte pattern[]) {
+        if (pattern.length == 0) throw new IllegalArgumentException("Empty pattern");
+        this.pattern = pattern.clone();
+        firstBytes = (pattern[0] & 0xFFL) * ONES;
+        lastBytes = (pattern[pattern.length - 1] & 0xFFL) * ONES;
+    }
+
+    // 0x80 in every byte of x that is zero, 0 elsewhere (exact, no borrow between bytes)
+    static long zeroBytes(long x) {
+        return ~(((x & LOW7) + LOW7) | x | LOW7);
+    }
+
+    // First match starting in [from, to - m], or -1
+    int indexOf(byte text[], int from, int to) {
+        long found = scan(text, from, to, true);
+        return (int) found;
+    }
+
+    int indexOf(byte text[]) {
+        return indexOf(text, 0, text.length);
+    }
+
+    // Appends every (overlapping) match start in [from, to - m] to matches[]; returns how many
+    int findAll(byte text[], int from, int to) {
+        int before = matchCount;
+        scan(text, from, to, false);
+        return matchCount - before;
+    }
+
+    // firstOnly: returns the first match or -1; otherwise records all matches and returns -1
+    long scan(byte text[], int from, int to, boolean firstOnly) {
+        byte p[] = pattern;
+        int m = p.length;
+        int last = to - m;          // last valid start
+        long wasted = 0;            // bytes compared by failed verifications
+        int i = from;
+
+        // blocks of 8 starts; the load at i + m - 1 reads up to text[i + m + 6] <= text[to - 1]
+        for (; i + 7 <= last; i += 8) {
+            long a = (long) LONGS.get(text, i);
+            long b = (long) LONGS.get(text, i + m - 1);
+            long mask = zeroBytes(a ^ firstBytes) & zeroBytes(b ^ lastBytes);
+
+            while (mask != 0) {
+                int start = i + (Long.numberOfTrailingZeros(mask) >>> 3);
+                mask &= mask - 1;
+                int mismatch = m <= 2 ? -1 : Arrays.mismatch(text, start + 1, start + m - 1, p, 1, m - 1);
+                if (mismatch < 0) {
+                    if (firstOnly) return start;
+                    addMatch(start);
+                } else if ((wasted += mismatch + 1) > FALLBACK_SLACK + 4L * (start - from + m)) {
+                    // starts up to this candidate are done (candidates come in increasing
+                    // order), so KMP resumes right after it and reports nothing twice
+                    return kmpFrom(text, start + 1, to, firstOnly);
+                }
+            }
+        }
+
+        for (; i <= last; i++) {
+            if (text[i] == p[0] && text[i + m - 1] == p[m - 1]
+                    && Arrays.equals(text, i, i + m, p, 0, m)) {
+                if (firstOnly) return i;
+                addMatch(i);
+            }
+        }
+        return -1;
+    }
+
+    // Finishes [from, to) with KmpMatcher (worst case O(n + m)); firstOnly stops at the first match
+    long kmpFrom(byte text[], int from, int to, boolean firstOnly) {
+        if (kmp == null) kmp = new KmpMatcher(pattern);
+        kmp.reset();
+        if (firstOnly) {
+            for (int chunk = from; chunk < to && kmp.matchCount == 0; ) {
+                int end = chunk + Math.min(KMP_CHUNK, to - chunk);
+                kmp.feed(text, chunk, end);
+                chunk = end;
+            }
+            return kmp.matchCount == 0 ? -1 : from + kmp.matches[0];
+        }
+        kmp.feed(text, from, to);
+        for (int k = 0; k < kmp.matchCount; k++) addMatch(from + kmp.matches[k]);
+        return -1;
+    }
+
+    void addMatch(long offset) {
+        if (matchCount == matches.length) matches = Arrays.copyOf(matches, 2 * matches.length);
+        matches[matchCount++] = offset;
+    }
+}
@@ -27,7 +27,7 @@ class Node{
 
 public class Trie {
 
-    private static Node root;
+    private Node root;
 
     //Initialize your data structure here
 
@@ -38,7 +38,7 @@ public class Trie {
 
     //Inserts a word into the trie
 
-    public static void insert(String word) {
+    public void insert(String word) {
         Node node = root;
         for(char ch : word.toCharArray()){
             if(!node.containsKey(ch)){
@@ -52,7 +52,7 @@ public class Trie {
 
     //Returns if the word is in the trie
 
-    public static boolean search(String word) {
+    public boolean search(String word) {
         Node node = root;
         for(char ch : word.toCharArray()){
             if(!node.containsKey(ch)) return false;
@@ -64,7 +64,7 @@ public class Trie {
     
     //Returns if there is any word in the trie that starts with the given prefix
 
-    public static boolean startsWith(String prefix) {
+    public boolean startsWith(String prefix) {
         Node node = root;
         for(char ch : prefix.toCharArray()){
             if(!node.containsKey(ch)) return false;
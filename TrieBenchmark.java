@@ -0,0 +1,149 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Rough timing / memory harness for the trie implementations.
+ *
+ * Run with: java TrieBenchmark [keys] [lookups] [maxThreads]
+ * The same random lowercase words (so the 26-letter Trie can take them) are
+ * inserted into every trie. Heap is measured as the used-memory difference
+ * around the build, so run with a fixed -Xmx for stable numbers.
+ * The concurrent part runs a mixed stream (1 insert per 9 searches) on 1, 2, 4 ...
+ * maxThreads threads, against one Trie behind a lock and one ConcurrentTrie.
+ */
+public class TrieBenchmark {
+
+    static String[] randomWords(int count, long seed) {
+        Random random = new Random(seed);
+        String words[] = new String[count];
+        char buffer[] = new char[16];
+        for (int i = 0; i < count; i++) {
+            int len = 4 + random.nextInt(12);
+            for (int j = 0; j < len; j++) buffer[j] = (char) ('a' + random.nextInt(26));
+            words[i] = new String(buffer, 0, len);
+        }
+        return words;
+    }
+
+    static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static void report(String name, long bytes, int keys, long lookupNanos, int lookups, long hits) {
+        double seconds = lookupNanos / 1e9;
+        System.out.printf("%-18s %8.1f bytes/key  %12.0f lookups/s  hits=%d%n",
+                name, (double) bytes / keys, lookups / seconds, hits);
+    }
+
+    interface WordSet {
+        void insert(String word);
+        boolean search(String word);
+    }
+
+    // Thread t handles ops [count * t / threads, count * (t + 1) / threads): every 10th op inserts
+    static long runMixed(WordSet set, String inserts[], String probes[], int threads) throws InterruptedException {
+        LongAdder hits = new LongAdder();
+        int count = probes.length;
+
+        Thread workers[] = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) count * t / threads), to = (int) ((long) count * (t + 1) / threads);
+            workers[t] = new Thread(() -> {
+                long local = 0;
+                for (int i = from; i < to; i++) {
+                    if (i % 10 == 0) set.insert(inserts[i % inserts.length]);
+                    else if (set.search(probes[i])) local++;
+                }
+                hits.add(local);
+            });
+        }
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+        return hits.sum();
+    }
+
+    static void concurrentScaling(String words[], String probes[], int maxThreads) throws InterruptedException {
+        // first half is preloaded, the second half is inserted during the run
+        int half = words.length / 2;
+        String inserts[] = Arrays.copyOfRange(words, half, words.length);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Trie trie = new Trie();
+            for (int i = 0; i < half; i++) trie.insert(words[i]);
+            Object lock = new Object();
+            WordSet locked = new WordSet() {
+                public void insert(String word) { synchronized (lock) { trie.insert(word); } }
+                public boolean search(String word) { synchronized (lock) { return trie.search(word); } }
+            };
+
+            ConcurrentTrie concurrentTrie = new ConcurrentTrie();
+            for (int i = 0; i < half; i++) concurrentTrie.insert(words[i]);
+            WordSet lockFree = new WordSet() {
+                public void insert(String word) { concurrentTrie.insert(word); }
+                public boolean search(String word) { return concurrentTrie.search(word); }
+            };
+
+            long start = System.nanoTime();
+            long hits = runMixed(locked, inserts, probes, threads);
+            reportOps("locked Trie x" + threads, start, probes.length, hits);
+
+            start = System.nanoTime();
+            hits = runMixed(lockFree, inserts, probes, threads);
+            reportOps("ConcurrentTrie x" + threads, start, probes.length, hits);
+
+            // every inserted word must be visible after the threads joined
+            for (int i = 0; i < probes.length; i += 10) {
+                if (!concurrentTrie.search(inserts[i % inserts.length])) throw new AssertionError("lost insert");
+            }
+        }
+    }
+
+    static void reportOps(String name, long startNanos, int ops, long hits) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-20s %8.3f s  %12.0f ops/s  hits=%d%n", name, seconds, ops / seconds, hits);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        String words[] = randomWords(count, 1);
+        // half of the probes are stored words, half are fresh random ones
+        String probes[] = randomWords(lookups, 2);
+        Random random = new Random(3);
+        for (int i = 0; i < lookups; i += 2) probes[i] = words[random.nextInt(count)];
+
+        long before = usedMemory();
+        Trie trie = new Trie();
+        for (String word : words) trie.insert(word);
+        long trieBytes = usedMemory() - before;
+
+        long hits = 0;
+        for (String probe : probes) if (trie.search(probe)) hits++;   // warm-up
+        long start = System.nanoTime();
+        hits = 0;
+        for (String probe : probes) if (trie.search(probe)) hits++;
+        report("Trie", trieBytes, count, System.nanoTime() - start, lookups, hits);
+        trie = null;   // drop the old tree
+
+        before = usedMemory();
+        DoubleArrayTrie da = new DoubleArrayTrie();
+        for (String word : words) da.insert(word);
+        long daBytes = usedMemory() - before;
+
+        hits = 0;
+        for (String probe : probes) if (da.search(probe)) hits++;
+        start = System.nanoTime();
+        hits = 0;
+        for (String probe : probes) if (da.search(probe)) hits++;
+        report("DoubleArrayTrie", daBytes, count, System.nanoTime() - start, lookups, hits);
+        System.out.printf("DoubleArrayTrie arrays: %.1f bytes/key%n", (double) da.bytesUsed() / da.size);
+        da = null;
+
+        concurrentScaling(words, probes, maxThreads);
+    }
+}
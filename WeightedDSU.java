@@ -0,0 +1,154 @@
+import java.util.Arrays;
+
+/*
+ * Weighted (potential) DSU.
+ *
+ * Besides connectivity it keeps, for every element, its potential relative to
+ * the root: pot[x] - pot[root]. union(x, y, w) records the constraint
+ * pot[y] - pot[x] = w and reports a contradiction if it disagrees with what
+ * is already known. Used for difference constraints ("b is 5 more than a").
+ */
+class WeightedDSU {
+    int[] parent, size;
+    long[] diff;        // diff[x] = pot[x] - pot[parent[x]]
+    int[] path;         // scratch stack for the iterative find
+
+    WeightedDSU(int n) {
+        parent = new int[n + 1];
+        size = new int[n + 1];
+        diff = new long[n + 1];
+        path = new int[n + 1];
+        Arrays.fill(size, 1);
+        for (int i = 0; i <= n; i++) {
+            parent[i] = i;
+        }
+    }
+
+    // Iterative find with path compression; afterwards diff[x] is relative to the root
+    int findParent(int x) {
+        int top = 0;
+        while (parent[x] != x) {
+            path[top++] = x;
+            x = parent[x];
+        }
+        int root = x;
+
+        // walk back from the node closest to the root, accumulating potentials
+        for (int i = top - 1; i >= 0; i--) {
+            int node = path[i];
+            int p = parent[node];
+            if (p != root) diff[node] += diff[p];
+            parent[node] = root;
+        }
+        return root;
+    }
+
+    // pot[x] - pot[root of x]
+    long potential(int x) {
+        findParent(x);
+        return diff[x];
+    }
+
+    // Adds the constraint pot[y] - pot[x] = w; false if it contradicts earlier ones
+    boolean union(int x, int y, long w) {
+        int px = findParent(x);
+        int py = findParent(y);
+        long potX = diff[x], potY = diff[y];
+
+        if (px == py) return potY - potX == w;
+
+        // pot[py] - pot[px] = potX + w - potY
+        long rootDiff = potX + w - potY;
+        if (size[px] >= size[py]) {
+            parent[py] = px;
+            diff[py] = rootDiff;
+            size[px] += size[py];
+        } else {
+            parent[px] = py;
+            diff[px] = -rootDiff;
+            size[py] += size[px];
+        }
+        return true;
+    }
+
+    boolean isConnected(int x, int y) {
+        return findParent(x) == findParent(y);
+    }
+
+    // pot[y] - pot[x]; only meaningful if isConnected(x, y)
+    long difference(int x, int y) {
+        return potential(y) - potential(x);
+    }
+}
+
+/*
+ * Parity DSU: the potential is one bit, combined with XOR.
+ *
+ * union(x, y, 1) says "x and y are on different sides", union(x, y, 0) says
+ * "same side". A false return means an odd cycle (the graph is not bipartite).
+ */
+class ParityDSU {
+    int[] parent, size;
+    byte[] parity;      // parity[x] = side(x) XOR side(parent[x])
+    int[] path;
+
+    ParityDSU(int n) {
+        parent = new int[n + 1];
+        size = new int[n + 1];
+        parity = new byte[n + 1];
+        path = new int[n + 1];
+        Arrays.fill(size, 1);
+        for (int i = 0; i <= n; i++) {
+            parent[i] = i;
+        }
+    }
+
+    int findParent(int x) {
+        int top = 0;
+        while (parent[x] != x) {
+            path[top++] = x;
+            x = parent[x];
+        }
+        int root = x;
+
+        for (int i = top - 1; i >= 0; i--) {
+            int node = path[i];
+            int p = parent[node];
+            if (p != root) parity[node] ^= parity[p];
+            parent[node] = root;
+        }
+        return root;
+    }
+
+    // Adds side(x) XOR side(y) = bit; false if it contradicts earlier constraints
+    boolean union(int x, int y, int bit) {
+        int px = findParent(x);
+        int py = findParent(y);
+        int parityX = parity[x], parityY = parity[y];
+
+        if (px == py) return (parityX ^ parityY) == bit;
+
+        byte rootParity = (byte) (parityX ^ parityY ^ bit);
+        if (size[px] >= size[py]) {
+            parent[py] = px;
+            parity[py] = rootParity;
+            size[px] += size[py];
+        } else {
+            parent[px] = py;
+            parity[px] = rootParity;
+            size[py] += size[px];
+        }
+        return true;
+    }
+
+    boolean isConnected(int x, int y) {
+        return findParent(x) == findParent(y);
+    }
+
+    // side(x) XOR side(y); only meaningful if isConnected(x, y)
+    int parity(int x, int y) {
+        findParent(x);
+        findParent(y);
+        return parity[x] ^ parity[y];
+    }
+}